@@ -6,8 +6,11 @@ import androidx.room.Room;
 import androidx.room.RoomDatabase;
 import androidx.room.migration.Migration;
 import android.content.Context;
+import android.database.Cursor;
 
-@Database(entities = {SiteswapEntity.class, GenerationParameterEntity.class}, version = 2)
+import siteswaplib.Siteswap;
+
+@Database(entities = {SiteswapEntity.class, GenerationParameterEntity.class}, version = 3)
 public abstract class AppDatabase extends RoomDatabase {
 
     public final static String database_name = "siteswap_generator_app_database";
@@ -21,7 +24,7 @@ public abstract class AppDatabase extends RoomDatabase {
             INSTANCE =
                     Room.databaseBuilder(context.getApplicationContext(), AppDatabase.class,
                             database_name)
-                            .addMigrations(MIGRATION_1_2)
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
                             .build();
         }
         return INSTANCE;
@@ -54,4 +57,32 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     };
 
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `favorites` ADD COLUMN `rotation_hash` " +
+                    "INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("CREATE INDEX `index_favorites_rotation_hash` " +
+                    "ON `favorites` (`rotation_hash`)");
+            Cursor cursor = database.query("SELECT `uid`, `siteswap` FROM `favorites`");
+            try {
+                while (cursor.moveToNext()) {
+                    int hash;
+                    try {
+                        hash = new Siteswap(cursor.getString(1)).rotationInvariantHashCode();
+                    }
+                    catch (RuntimeException e) {
+                        // Favorites, which can not be parsed, keep the default hash
+                        continue;
+                    }
+                    database.execSQL("UPDATE `favorites` SET `rotation_hash` = ? WHERE `uid` = ?",
+                            new Object[] {hash, cursor.getInt(0)});
+                }
+            }
+            finally {
+                cursor.close();
+            }
+        }
+    };
+
 }
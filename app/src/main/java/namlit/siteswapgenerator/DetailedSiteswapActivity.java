@@ -31,11 +31,14 @@ import android.view.View;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
 
+import siteswaplib.NamedSiteswap;
 import siteswaplib.NamedSiteswaps;
 import siteswaplib.Siteswap;
+import siteswaplib.SiteswapHashSet;
 
 public class DetailedSiteswapActivity extends AppCompatActivity
         implements AddToFavoritesDialog.DatabaseTransactionComplete {
@@ -89,7 +92,8 @@ public class DetailedSiteswapActivity extends AppCompatActivity
             @Override
             public void run() {
                 AppDatabase db = AppDatabase.getAppDatabase(getApplicationContext());
-                mFavorite = db.siteswapDao().getSiteswap(mSiteswap.toParsableString());
+                List<SiteswapEntity> favorites = findFavorites(db.siteswapDao());
+                mFavorite = favorites.isEmpty() ? null : favorites.get(0);
                 runOnUiThread(new Runnable() {
                     @Override
                     public void run() {
@@ -240,12 +244,9 @@ public class DetailedSiteswapActivity extends AppCompatActivity
     private void loadNameFromFavorites() {
 
         if (mSiteswap.getSiteswapName() == "") {
-            Siteswap normalizedSiteswap = new Siteswap(mSiteswap);
-            normalizedSiteswap.make_unique_representation();
-            int index = NamedSiteswaps.getListOfNamedSiteswaps().indexOf(normalizedSiteswap);
-            if (index != -1) {
-                mSiteswap.setSiteswapName(((Siteswap)
-                        NamedSiteswaps.getListOfNamedSiteswaps().get(index)).getSiteswapName());
+            NamedSiteswap namedSiteswap = NamedSiteswaps.findNamedSiteswap(mSiteswap);
+            if (namedSiteswap != null) {
+                mSiteswap.setSiteswapName(namedSiteswap.getSiteswapName());
             }
         }
     }
@@ -366,7 +367,7 @@ public class DetailedSiteswapActivity extends AppCompatActivity
                 try {
                     AppDatabase db = AppDatabase.getAppDatabase(getApplicationContext());
                     FavoriteDao dao = db.siteswapDao();
-                    final List<SiteswapEntity> siteswapEntityList = dao.getSiteswaps(mSiteswap.toParsableString());
+                    final List<SiteswapEntity> siteswapEntityList = findFavorites(dao);
                     runOnUiThread(new Runnable() {
                         @Override
                         public void run() {
@@ -392,6 +393,23 @@ public class DetailedSiteswapActivity extends AppCompatActivity
 
     }
 
+    /**
+     * Returns the favorites, which are the same pattern as the shown siteswap, even if
+     * they were saved with another rotation. Only the favorites with the same rotation
+     * hash are loaded and compared.
+     */
+    private List<SiteswapEntity> findFavorites(FavoriteDao dao) {
+        SiteswapHashSet siteswapSet = new SiteswapHashSet();
+        siteswapSet.add(mSiteswap);
+        List<SiteswapEntity> favorites = new ArrayList<SiteswapEntity>();
+        for (SiteswapEntity favorite : dao.getSiteswapsOfRotationHash(
+                mSiteswap.rotationInvariantHashCode())) {
+            if (siteswapSet.contains(favorite.toSiteswap()))
+                favorites.add(favorite);
+        }
+        return favorites;
+    }
+
     @Override
     public void databaseTransactionComplete() {
         updateTextViews();
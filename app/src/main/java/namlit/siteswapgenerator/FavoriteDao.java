@@ -21,6 +21,9 @@ public interface FavoriteDao {
     @Query("SELECT * FROM favorites WHERE siteswap IS :siteswap")
     SiteswapEntity getSiteswap(String siteswap);
 
+    @Query("SELECT * FROM favorites WHERE rotation_hash = :rotationHash")
+    List<SiteswapEntity> getSiteswapsOfRotationHash(int rotationHash);
+
     @Query("SELECT DISTINCT juggler_names FROM favorites ORDER BY juggler_names")
     List<String> getJugglers();
 
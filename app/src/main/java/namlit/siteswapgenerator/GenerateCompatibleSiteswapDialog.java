@@ -169,7 +169,7 @@ public class GenerateCompatibleSiteswapDialog extends DialogFragment {
             siteswapGenerator.setCompatibleSiteswap(mSiteswap);
 
             Intent intent = new Intent(getContext(), ShowSiteswaps.class);
-            intent.putExtra(getString(R.string.intent__siteswap_generator), siteswapGenerator);
+            intent.putExtra(getString(R.string.intent__siteswap_generator), siteswapGenerator.toByteArray());
             startActivity(intent);
         }
         catch (NumberFormatException e) {
@@ -48,14 +48,12 @@ import android.text.TextWatcher;
 import android.text.Editable;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.nio.channels.FileChannel;
 import java.util.List;
 
@@ -140,9 +138,19 @@ public class MainActivity extends AppCompatActivity
         mIsRandomGenerationMode = sharedPref.getBoolean(
                 getString(R.string.main_activity__settings_is_random_generation_mode), false);
         mFilterSpinnerPosition = sharedPref.getInt(getString(R.string.main_activity__settings_filter_spinner_position), 0);
+        String filterListString = sharedPref.getString(getString(R.string.main_activity__settings_filter_list_string), null);
         String serializedFilterList = sharedPref.getString(getString(R.string.main_activity__settings_filter_list), "");
 
-        if (serializedFilterList != "") {
+        if (filterListString != null) {
+            try {
+                mFilterList = new FilterList().fromParsableString(filterListString);
+            } catch (IllegalArgumentException e) {
+                Toast.makeText(this, getString(R.string.main_activity__deserialization_error_toast),
+                        Toast.LENGTH_SHORT).show();
+            }
+        }
+        else if (!serializedFilterList.equals("")) {
+            // Filter lists of older versions are stored java serialized
             try {
                 byte b[] = Base64.decode(serializedFilterList, Base64.DEFAULT);
                 ByteArrayInputStream bi = new ByteArrayInputStream(b);
@@ -635,16 +643,8 @@ public class MainActivity extends AppCompatActivity
         editor.putBoolean(getString(R.string.main_activity__settings_is_holds), mIsHolds);
         editor.putInt(getString(R.string.main_activity__settings_filter_spinner_position), mFilterSpinnerPosition);
 
-        try {
-            ByteArrayOutputStream bo = new ByteArrayOutputStream();
-            ObjectOutputStream so = new ObjectOutputStream(bo);
-            so.writeObject(mFilterList);
-            so.close();
-            editor.putString(getString(R.string.main_activity__settings_filter_list), Base64.encodeToString(bo.toByteArray(), Base64.DEFAULT));
-        } catch (Exception e) {
-            Toast.makeText(this, getString(R.string.main_activity__serialization_error_toast),
-                    Toast.LENGTH_SHORT).show();
-        }
+        editor.putString(getString(R.string.main_activity__settings_filter_list_string), mFilterList.toParsableString());
+        editor.remove(getString(R.string.main_activity__settings_filter_list));
 
         editor.commit();
     }
@@ -725,7 +725,7 @@ public class MainActivity extends AppCompatActivity
         siteswapGenerator.setRandomGeneration(mIsRandomGenerationMode);
 
         Intent intent = new Intent(this, ShowSiteswaps.class);
-        intent.putExtra(getString(R.string.intent__siteswap_generator), siteswapGenerator);
+        intent.putExtra(getString(R.string.intent__siteswap_generator), siteswapGenerator.toByteArray());
         startActivity(intent);
     }
 
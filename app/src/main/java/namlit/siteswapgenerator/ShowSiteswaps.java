@@ -30,20 +30,25 @@ import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.AdapterView;
-import android.widget.ArrayAdapter;
 import android.widget.ListView;
 import android.widget.SearchView;
+import android.widget.Toast;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.util.List;
 
 import siteswaplib.SiteswapGenerator;
 import siteswaplib.Siteswap;
+import siteswaplib.SiteswapSearchIndex;
 
 public class ShowSiteswaps extends AppCompatActivity implements SiteswapGenerationFragment.SiteswapGenerationCallbacks {
 
     private static final String TAG_SITESWAP_GENERATION_TASK_FRAGMENT = "siteswap_generation_task_fragment";
     private SiteswapGenerator mGenerator = null;
-    private LinkedList<Siteswap> mSiteswapList = null;
+    private List<Siteswap> mSiteswapList = null;
+    private SiteswapSearchIndex mSearchIndex = null;
+    private SiteswapListAdapter mAdapter = null;
+    private SiteswapGenerator.Progress mProgress = null;
     private SiteswapGenerator.Status mGenerationStatus = SiteswapGenerator.Status.GENERATING;
     private SiteswapGenerationFragment mSiteswapGenerationFragment;
 
@@ -59,7 +64,15 @@ public class ShowSiteswaps extends AppCompatActivity implements SiteswapGenerati
 
         Intent intent = getIntent();
         if(intent != null) {
-            mGenerator = (SiteswapGenerator) intent.getSerializableExtra(getString(R.string.intent__siteswap_generator));
+            try {
+                mGenerator = SiteswapGenerator.fromByteArray(
+                        intent.getByteArrayExtra(getString(R.string.intent__siteswap_generator)));
+            } catch (IOException e) {
+                Toast.makeText(this, getString(R.string.main_activity__deserialization_error_toast),
+                        Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
         }
 
         mSiteswapListView = (ListView) findViewById(R.id.siteswap_list);
@@ -84,6 +97,14 @@ public class ShowSiteswaps extends AppCompatActivity implements SiteswapGenerati
         super.onRestart();
     }
 
+    @Override
+    protected void onDestroy() {
+        // The search is stopped before the generation fragment closes the siteswaps
+        if (mAdapter != null)
+            mAdapter.close();
+        super.onDestroy();
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_siteswap_list, menu);
@@ -119,10 +140,13 @@ public class ShowSiteswaps extends AppCompatActivity implements SiteswapGenerati
         if (mSiteswapList != null) {
             StringBuilder stringBuilder = new StringBuilder();
             int char_counter = 0;
-            for (Siteswap siteswap: mSiteswapList)
+            // The size is read once, because the list might be extended during generation
+            int size = mSiteswapList.size();
+            for (int i = 0; i < size; ++i)
             {
-                stringBuilder.append(siteswap.toString() + "\n");
-                char_counter += siteswap.period_length();
+                String siteswap = mSiteswapList.get(i).toString();
+                stringBuilder.append(siteswap).append("\n");
+                char_counter += siteswap.length();
                 if (char_counter >= 1000) {
                     stringBuilder.append(getString(
                             R.string.show_siteswaps__share_to_many_siteswaps));
@@ -137,9 +161,16 @@ public class ShowSiteswaps extends AppCompatActivity implements SiteswapGenerati
     }
 
     private void loadSiteswaps() {
-        mSiteswapList = mGenerator.getSiteswaps();
-        ArrayAdapter adapter = new ArrayAdapter<Siteswap>(
-                ShowSiteswaps.this, android.R.layout.simple_list_item_1, mSiteswapList);
+        updateTitle();
+        if (mAdapter != null && mAdapter.getSearchIndex() == mSearchIndex) {
+            mAdapter.update();
+            return;
+        }
+        if (mAdapter != null)
+            mAdapter.close();
+        final SiteswapListAdapter adapter = new SiteswapListAdapter(
+                ShowSiteswaps.this, android.R.layout.simple_list_item_1, mSiteswapList, mSearchIndex);
+        mAdapter = adapter;
         mSiteswapListView.setAdapter(adapter);
         mSiteswapListView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
             @Override
@@ -159,10 +190,40 @@ public class ShowSiteswaps extends AppCompatActivity implements SiteswapGenerati
             }
         });
 
+        mSearchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
+            @Override
+            public boolean onQueryTextSubmit(String query) {
+                return false;
+            }
 
+            @Override
+            public boolean onQueryTextChange(String newText) {
+                if (TextUtils.isEmpty(newText)) {
+                    adapter.setQuery(null);
+                } else {
+                    adapter.setQuery(newText);
+                }
+                return true;
+            }
+        });
+    }
+
+    private void updateTitle() {
         switch (mGenerationStatus) {
             case GENERATING:
-                setTitle(String.format(getString(R.string.show_siteswaps__title_generating)));
+                if (mProgress == null) {
+                    setTitle(String.format(getString(R.string.show_siteswaps__title_generating)));
+                }
+                else if (mProgress.getSearchedFraction() < 0) {
+                    setTitle(String.format(getString(R.string.show_siteswaps__title_generating_found),
+                            mProgress.getNumberOfResults()));
+                }
+                else {
+                    setTitle(String.format(getString(R.string.show_siteswaps__title_generating_progress),
+                            mProgress.getNumberOfResults(),
+                            (int) (100 * mProgress.getSearchedFraction()),
+                            (long) mProgress.getResultsPerSecond()));
+                }
                 break;
             case ALL_SITESWAPS_FOUND:
                 setTitle(String.format(getString(R.string.show_siteswaps__title_found_all), mSiteswapList.size()));
@@ -180,30 +241,27 @@ public class ShowSiteswaps extends AppCompatActivity implements SiteswapGenerati
                 setTitle(String.format(getString(R.string.show_siteswaps__title_cancelled)));
                 break;
         }
-
-        mSearchView.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
-            @Override
-            public boolean onQueryTextSubmit(String query) {
-                return false;
-            }
-
-            @Override
-            public boolean onQueryTextChange(String newText) {
-                if (TextUtils.isEmpty(newText)) {
-                    adapter.getFilter().filter(null);
-                } else {
-                    adapter.getFilter().filter(newText);
-                }
-                return true;
-            }
-        });
     }
 
     public SiteswapGenerator getSiteswapGenerator() {
         return mGenerator;
     }
-    public void onGenerationComplete(SiteswapGenerator generator, SiteswapGenerator.Status status) {
+    public void onGenerationProgress(SiteswapGenerator generator, List<Siteswap> siteswaps,
+                                     SiteswapSearchIndex searchIndex,
+                                     SiteswapGenerator.Progress progress) {
+        mGenerator = generator;
+        mSiteswapList = siteswaps;
+        mSearchIndex = searchIndex;
+        mProgress = progress;
+        loadSiteswaps();
+    }
+
+    public void onGenerationComplete(SiteswapGenerator generator, List<Siteswap> siteswaps,
+                                     SiteswapSearchIndex searchIndex,
+                                     SiteswapGenerator.Status status) {
         mGenerator = generator;
+        mSiteswapList = siteswaps;
+        mSearchIndex = searchIndex;
         mGenerationStatus = status;
         loadSiteswaps();
 
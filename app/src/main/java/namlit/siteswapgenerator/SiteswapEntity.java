@@ -2,6 +2,7 @@ package namlit.siteswapgenerator;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.annotation.NonNull;
 
@@ -9,7 +10,7 @@ import java.io.Serializable;
 
 import siteswaplib.Siteswap;
 
-@Entity(tableName = "favorites")
+@Entity(tableName = "favorites", indices = {@Index("rotation_hash")})
 public class SiteswapEntity implements Serializable {
 
     @PrimaryKey(autoGenerate = true)
@@ -31,6 +32,10 @@ public class SiteswapEntity implements Serializable {
     @ColumnInfo(name = "date")
     private String date;
 
+    // Siteswap.rotationInvariantHashCode, for finding all rotations of a siteswap
+    @ColumnInfo(name = "rotation_hash")
+    private int rotationHash;
+
     public SiteswapEntity() {
 
     }
@@ -92,6 +97,14 @@ public class SiteswapEntity implements Serializable {
         this.date = date;
     }
 
+    public int getRotationHash() {
+        return rotationHash;
+    }
+
+    public void setRotationHash(int rotationHash) {
+        this.rotationHash = rotationHash;
+    }
+
     public Siteswap toSiteswap() {
         Siteswap siteswap = new Siteswap(getSiteswap());
         return siteswap;
@@ -99,6 +112,7 @@ public class SiteswapEntity implements Serializable {
 
     public void fromSiteswap(Siteswap siteswap) {
         setSiteswap(siteswap.toParsableString());
+        setRotationHash(siteswap.rotationInvariantHashCode());
         setName(siteswap.getSiteswapName());
     }
 
@@ -24,7 +24,15 @@ import android.os.AsyncTask;
 import android.os.Bundle;
 import android.app.Fragment;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import siteswaplib.Siteswap;
 import siteswaplib.SiteswapGenerator;
+import siteswaplib.SiteswapResultCache;
+import siteswaplib.SiteswapResultStore;
+import siteswaplib.SiteswapSearchIndex;
 
 /**
  * Created by tilman on 22.11.17.
@@ -34,9 +42,20 @@ public class SiteswapGenerationFragment extends Fragment {
 
     interface SiteswapGenerationCallbacks {
         SiteswapGenerator getSiteswapGenerator();
-        void onGenerationComplete(SiteswapGenerator generator, SiteswapGenerator.Status status);
+        void onGenerationProgress(SiteswapGenerator generator, List<Siteswap> siteswaps,
+                                  SiteswapSearchIndex searchIndex,
+                                  SiteswapGenerator.Progress progress);
+        void onGenerationComplete(SiteswapGenerator generator, List<Siteswap> siteswaps,
+                                  SiteswapSearchIndex searchIndex,
+                                  SiteswapGenerator.Status status);
     }
 
+    // Interval, in which the results found so far are passed to the activity
+    private static final int PROGRESS_INTERVAL_MILLIS = 250;
+    // Results of previous generations are cached in this subdirectory of the cache directory
+    private static final String RESULT_CACHE_DIRECTORY = "results";
+    private static final long RESULT_CACHE_MAX_BYTES = 32 * 1024 * 1024;
+
     private SiteswapGenerationCallbacks mCallbacks;
     private SiteswapGenerationTask mTask;
 
@@ -79,6 +98,7 @@ public class SiteswapGenerationFragment extends Fragment {
         mTask.mGenerator.cancelGeneration();
         mTask.cancel(true);
         mTask.mGenerator = null;
+        mTask.closeSiteswaps();
         mTask = null;
     }
 
@@ -99,23 +119,57 @@ public class SiteswapGenerationFragment extends Fragment {
         return mTask.mIsError;
     }
 
-    private class SiteswapGenerationTask extends AsyncTask<Void, Integer, Void> {
+    private class SiteswapGenerationTask extends AsyncTask<Void, SiteswapGenerator.Progress, Void> {
 
         private SiteswapGenerator mGenerator;
         private SiteswapGenerator.Status mGenerationStatus;
+        private SiteswapResultStore mSiteswaps;
+        private SiteswapSearchIndex mSearchIndex;
+        private File mCacheDirectory;
         private boolean mIsError = false;
 
         @Override
         protected void onPreExecute() {
             if (mCallbacks != null) {
                 mGenerator = mCallbacks.getSiteswapGenerator();
+                mCacheDirectory = ((Context) mCallbacks).getCacheDir();
             }
         }
 
         @Override
         protected Void doInBackground(Void... ignore) {
             try {
-                mGenerationStatus = mGenerator.generateSiteswaps();
+                // The results are stored in a temporary file, so that the number of
+                // siteswaps is not limited by the heap size.
+                try {
+                    mSiteswaps = new SiteswapResultStore(mGenerator.getPeriodLength(),
+                            mGenerator.getNumberOfJugglers(),
+                            mGenerator.getNumberOfSynchronousHands(), mCacheDirectory);
+                }
+                catch (IOException e) {
+                    mSiteswaps = new SiteswapResultStore(mGenerator.getPeriodLength(),
+                            mGenerator.getNumberOfJugglers(),
+                            mGenerator.getNumberOfSynchronousHands());
+                }
+                // The results are indexed for searching in background and shown in
+                // batches during the generation.
+                mSearchIndex = new SiteswapSearchIndex(mSiteswaps);
+                mGenerator.setProgressListener(new SiteswapGenerator.ProgressListener() {
+                    @Override
+                    public void onProgress(SiteswapGenerator.Progress progress) {
+                        mSearchIndex.update();
+                        publishProgress(progress);
+                    }
+                }, PROGRESS_INTERVAL_MILLIS);
+                if (mCacheDirectory != null) {
+                    SiteswapResultCache cache = new SiteswapResultCache(
+                            new File(mCacheDirectory, RESULT_CACHE_DIRECTORY), RESULT_CACHE_MAX_BYTES);
+                    mGenerationStatus = cache.generateSiteswaps(mGenerator, mSiteswaps);
+                }
+                else {
+                    mGenerationStatus = mGenerator.generateSiteswaps(mSiteswaps);
+                }
+                mSearchIndex.update();
             }
             catch (java.lang.RuntimeException e) {
                 mIsError = true;
@@ -125,6 +179,14 @@ public class SiteswapGenerationFragment extends Fragment {
             return null;
         }
 
+        @Override
+        protected void onProgressUpdate(SiteswapGenerator.Progress... progress) {
+            if (mCallbacks != null && !isCancelled()) {
+                mCallbacks.onGenerationProgress(mGenerator, mSiteswaps, mSearchIndex,
+                        progress[progress.length - 1]);
+            }
+        }
+
         @Override
         protected void onPostExecute(Void ignore) {
 
@@ -136,7 +198,19 @@ public class SiteswapGenerationFragment extends Fragment {
                 return;
             }
             if (mCallbacks != null) {
-                mCallbacks.onGenerationComplete(mGenerator, mGenerationStatus);
+                mCallbacks.onGenerationComplete(mGenerator, mSiteswaps, mSearchIndex, mGenerationStatus);
+            }
+        }
+
+        private void closeSiteswaps() {
+            if (mSearchIndex != null)
+                mSearchIndex.close();
+            if (mSiteswaps == null)
+                return;
+            try {
+                mSiteswaps.close();
+            }
+            catch (IOException e) {
             }
         }
     }
@@ -0,0 +1,201 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package namlit.siteswapgenerator;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import siteswaplib.Siteswap;
+import siteswaplib.SiteswapSearchIndex;
+
+/**
+ * Adapter for large lists of generated siteswaps. The rows are rendered from the
+ * (random access) list, when they are shown. The list is searched with the search
+ * index in a background thread and the matches are shown, when the search is
+ * finished. The index may be updated by another thread; the new entries are
+ * shown after calling update.
+ */
+public class SiteswapListAdapter extends BaseAdapter {
+
+    private final LayoutInflater mInflater;
+    private final int mResource;
+    private final List<Siteswap> mSiteswaps;
+    private final SiteswapSearchIndex mSearchIndex;
+    // Searches are executed in order, so that the results can be appended
+    private final ExecutorService mSearchExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private String mQuery = "";
+    // Incremented for each query, so that results of former queries are dropped
+    private int mQueryNumber = 0;
+    // Number of indexed siteswaps, which are shown or searched
+    private int mSize;
+    // Indices of the siteswaps matching the query or null, if all siteswaps are shown
+    private int[] mMatches = null;
+
+    public SiteswapListAdapter(Context context, int resource, List<Siteswap> siteswaps,
+                               SiteswapSearchIndex searchIndex) {
+        mInflater = LayoutInflater.from(context);
+        mResource = resource;
+        mSiteswaps = siteswaps;
+        mSearchIndex = searchIndex;
+        mSize = searchIndex.size();
+    }
+
+    /**
+     * Shows the siteswaps, which were added to the search index since the last
+     * update, if they match the current query.
+     */
+    public void update() {
+        int size = mSearchIndex.size();
+        if (size == mSize)
+            return;
+        int fromIndex = mSize;
+        mSize = size;
+        if (mQuery.isEmpty())
+            notifyDataSetChanged();
+        else
+            search(fromIndex, size);
+    }
+
+    /**
+     * Shows only the siteswaps containing the query. An empty query shows all
+     * siteswaps. The matches of the former query are shown, until the search
+     * is finished.
+     */
+    public void setQuery(String query) {
+        if (query == null)
+            query = "";
+        mQuery = query;
+        mQueryNumber++;
+        if (query.isEmpty()) {
+            mMatches = null;
+            notifyDataSetChanged();
+        }
+        else {
+            search(0, mSize);
+        }
+    }
+
+    /**
+     * Stops the background search. The adapter can not be searched afterwards.
+     */
+    public void close() {
+        mSearchExecutor.shutdownNow();
+    }
+
+    public SiteswapSearchIndex getSearchIndex() {
+        return mSearchIndex;
+    }
+
+    /**
+     * Searches the entries from fromIndex to toIndex for the current query. The
+     * matches replace the shown ones, if fromIndex is 0, and are appended otherwise.
+     */
+    private void search(final int fromIndex, final int toIndex) {
+        final String query = mQuery;
+        final int queryNumber = mQueryNumber;
+        mSearchExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int[] matches;
+                try {
+                    matches = mSearchIndex.search(query, fromIndex, toIndex);
+                }
+                catch (RuntimeException e) {
+                    // The siteswaps may be closed during the search
+                    Log.w("SiteswapListAdapter", "Search failed", e);
+                    return;
+                }
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (queryNumber != mQueryNumber)
+                            return;
+                        if (fromIndex == 0 || mMatches == null) {
+                            mMatches = matches;
+                        }
+                        else {
+                            int[] newMatches = Arrays.copyOf(mMatches, mMatches.length + matches.length);
+                            System.arraycopy(matches, 0, newMatches, mMatches.length, matches.length);
+                            mMatches = newMatches;
+                        }
+                        notifyDataSetChanged();
+                    }
+                });
+            }
+        });
+    }
+
+    private int getIndex(int position) {
+        if (mMatches == null)
+            return position;
+        return mMatches[position];
+    }
+
+    @Override
+    public int getCount() {
+        if (mMatches == null)
+            return mSize;
+        return mMatches.length;
+    }
+
+    @Override
+    public Siteswap getItem(int position) {
+        return mSiteswaps.get(getIndex(position));
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getIndex(position);
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+
+        final View view;
+        final TextView text;
+        if (convertView == null) {
+            view = mInflater.inflate(mResource, parent, false);
+        } else {
+            view = convertView;
+        }
+        try {
+            text = (TextView) view;
+
+        } catch (ClassCastException e) {
+            Log.e("SiteswapListAdapter", "You must supply a resource ID for a TextView");
+            throw new IllegalStateException(
+                    "SiteswapListAdapter requires the resource ID to be a TextView", e);
+        }
+        text.setText(getItem(position).toString());
+        return view;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import siteswaplib.Filter;
+import siteswaplib.FilterList;
+import siteswaplib.InterfaceFilter;
+import siteswaplib.LocalInterfaceFilter;
+import siteswaplib.LocalPatternFilter;
+import siteswaplib.NumberFilter;
+import siteswaplib.PatternFilter;
+import siteswaplib.Siteswap;
+import siteswaplib.SiteswapGenerator;
+
+/**
+ * Evaluation of each filter type on all passing siteswaps of period 6 with 7 objects
+ * and 2 jugglers. The partly fulfilled check is done for every index, like during
+ * the backtracking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+
+	@Param({"number", "pattern", "interface", "localPattern", "localInterface"})
+	public String filterType;
+
+	private Filter mFilter;
+	private Siteswap[] mSiteswaps;
+
+	@Setup
+	public void setup() {
+		if (filterType.equals("number"))
+			mFilter = new NumberFilter("p", NumberFilter.Type.GREATER_EQUAL, 2, 1);
+		else if (filterType.equals("pattern"))
+			mFilter = new PatternFilter(new Siteswap("8p7", 2), PatternFilter.Type.EXCLUDE);
+		else if (filterType.equals("interface"))
+			mFilter = new InterfaceFilter(new Siteswap("ppsps", 2), PatternFilter.Type.INCLUDE);
+		else if (filterType.equals("localPattern"))
+			mFilter = new LocalPatternFilter(new Siteswap("7p", 2), PatternFilter.Type.INCLUDE, 2);
+		else
+			mFilter = new LocalInterfaceFilter(new Siteswap("p", 2), PatternFilter.Type.INCLUDE, 2);
+
+		SiteswapGenerator generator = new SiteswapGenerator(6, 10, 2, 7, 2, new FilterList());
+		generator.generateSiteswaps();
+		List<Siteswap> siteswaps = generator.getSiteswaps();
+		mSiteswaps = siteswaps.toArray(new Siteswap[siteswaps.size()]);
+	}
+
+	@Benchmark
+	public int isFulfilled() {
+		int count = 0;
+		for (Siteswap siteswap : mSiteswaps) {
+			if (mFilter.isFulfilled(siteswap))
+				count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int isPartlyFulfilled() {
+		int count = 0;
+		for (Siteswap siteswap : mSiteswaps) {
+			for (int index = 0; index < siteswap.period_length(); ++index) {
+				if (mFilter.isPartlyFulfilled(siteswap, index))
+					count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import siteswaplib.FilterList;
+import siteswaplib.SiteswapGenerator;
+import siteswaplib.SiteswapSink;
+
+/**
+ * Generation of all siteswaps with the default filters of the app. The backend is
+ * the serial or parallel backtracking or the enumeration of the state graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+
+	@Param({"4", "6"})
+	public int periodLength;
+
+	@Param({"4", "6"})
+	public int numberOfObjects;
+
+	@Param({"8", "10"})
+	public int maxThrow;
+
+	@Param({"1", "2"})
+	public int numberOfJugglers;
+
+	@Param({"false", "true"})
+	public boolean isSync;
+
+	@Param({"serial", "parallel", "stateGraph"})
+	public String backend;
+
+	private SiteswapGenerator mGenerator;
+
+	@Setup
+	public void setup() {
+		int numberOfSynchronousHands = isSync ? numberOfJugglers : 1;
+		FilterList filters = new FilterList(numberOfJugglers, numberOfSynchronousHands);
+		mGenerator = new SiteswapGenerator(periodLength, maxThrow, 0, numberOfObjects,
+				numberOfJugglers, filters);
+		mGenerator.setSyncPattern(isSync);
+		mGenerator.setTimeoutSeconds(3600);
+		mGenerator.setParallelGeneration(backend.equals("parallel"));
+		mGenerator.setStateGraphGeneration(backend.equals("stateGraph"));
+	}
+
+	@Benchmark
+	public long generateSiteswaps(final Blackhole blackhole) {
+		mGenerator.generateSiteswaps(new SiteswapSink() {
+			@Override
+			public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+				blackhole.consume(siteswap);
+				return true;
+			}
+		});
+		return mGenerator.getNumberOfGeneratedSiteswaps();
+	}
+}
@@ -0,0 +1,91 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import siteswaplib.FilterList;
+import siteswaplib.LocalPatternFilter;
+import siteswaplib.NumberFilter;
+import siteswaplib.PatternFilter;
+import siteswaplib.Siteswap;
+
+/**
+ * Single operations on siteswaps: unique representation, getin and getout, and
+ * parsing of the filter list, which is done on every start of the app.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SiteswapBenchmark {
+
+	@Param({"86277", "8686867", "db97531", "a4a4a6a2a4a4a6a2"})
+	public String siteswapString;
+
+	private Siteswap mSiteswap;
+	private String mFilterListString;
+
+	@Setup
+	public void setup() {
+		mSiteswap = new Siteswap(siteswapString, 2);
+		FilterList filters = new FilterList(2, 1);
+		filters.add(new NumberFilter("p", NumberFilter.Type.GREATER_EQUAL, 2, 1));
+		filters.add(new PatternFilter(new Siteswap("8p7", 2), PatternFilter.Type.EXCLUDE));
+		filters.add(new LocalPatternFilter(new Siteswap("7p", 2), PatternFilter.Type.INCLUDE, 2));
+		mFilterListString = filters.toParsableString();
+	}
+
+	@Benchmark
+	public Siteswap makeUniqueRepresentation() {
+		Siteswap siteswap = new Siteswap(mSiteswap);
+		siteswap.rotateRight(1);
+		siteswap.make_unique_representation();
+		return siteswap;
+	}
+
+	@Benchmark
+	public Siteswap calculateGetin() {
+		return mSiteswap.calculateGetin();
+	}
+
+	@Benchmark
+	public Siteswap calculateGetout() {
+		return mSiteswap.calculateGetout();
+	}
+
+	@Benchmark
+	public FilterList parseFilterList() {
+		return new FilterList().fromParsableString(mFilterListString);
+	}
+}
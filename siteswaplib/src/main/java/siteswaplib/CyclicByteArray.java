@@ -52,7 +52,71 @@ public class CyclicByteArray implements Iterable<Byte>, Iterator<Byte>, Serializ
 	public int length() {
 		return data.length;
 	}
+
+	// Returns the underlying array without copying it. The order of the elements
+	// only corresponds to at(), as long as the array was not rotated.
+	byte[] getData() {
+		return data;
+	}
 	
+	/**
+	 * Returns the number of positions, the array has to be rotated left to get the
+	 * lexicographically largest rotation. For equal rotations the smallest number
+	 * is returned.
+	 */
+	public int getMaxRotationIndex() {
+		return getMaxRotationIndex(data, first_element_index);
+	}
+
+	/**
+	 * Same as getMaxRotationIndex() for an array, whose first element is at the
+	 * given offset. The rotation is found in linear time by comparing two candidate
+	 * rotations, where a mismatch after k equal values rules out the next k + 1
+	 * start positions of the smaller candidate.
+	 */
+	static int getMaxRotationIndex(byte[] data, int offset) {
+		int n = data.length;
+		int i = 0;
+		int j = 1;
+		int k = 0;
+		while (i < n && j < n && k < n) {
+			int a = i + k + offset;
+			int b = j + k + offset;
+			byte valueA = data[a < n ? a : (a < 2 * n ? a - n : a - 2 * n)];
+			byte valueB = data[b < n ? b : (b < 2 * n ? b - n : b - 2 * n)];
+			if (valueA == valueB) {
+				++k;
+				continue;
+			}
+			if (valueA < valueB)
+				i += k + 1;
+			else
+				j += k + 1;
+			if (i == j)
+				++j;
+			k = 0;
+		}
+		return (i < j) ? i : j;
+	}
+
+	/**
+	 * Returns the smallest number of positions, the array can be rotated without
+	 * changing it, e.g. 2 for 5151.
+	 */
+	static int getExactPeriod(byte[] data) {
+		int n = data.length;
+		for (int period = 1; period < n; ++period) {
+			if (n % period != 0)
+				continue;
+			int i = period;
+			while (i < n && data[i] == data[i - period])
+				++i;
+			if (i == n)
+				return period;
+		}
+		return n;
+	}
+
 	public void rotateRight(int positions) {
 		if (length() == 0)
 			return;
@@ -18,6 +18,9 @@
 
 package siteswaplib;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.List;
@@ -126,30 +129,51 @@ public class FilterList extends LinkedList<Filter> implements Serializable {
 	}
 
     public String toParsableString() {
-        String str = new String();
+        StringBuilder str = new StringBuilder(64 * size());
         for (Filter filter : this) {
             if (filter instanceof LocalPatternFilter) {
-                str += Filter.FilterType.LOCAL_PATTERN_FILTER.toString() + ":";
-                str += filter.toParsableString() + ";";
+                str.append(Filter.FilterType.LOCAL_PATTERN_FILTER.toString()).append(':');
+                str.append(filter.toParsableString()).append(';');
             }
             else if (filter instanceof LocalInterfaceFilter) {
-                str += Filter.FilterType.LOCAL_INTERFACE_FILTER.toString() + ":";
-                str += filter.toParsableString() + ";";
+                str.append(Filter.FilterType.LOCAL_INTERFACE_FILTER.toString()).append(':');
+                str.append(filter.toParsableString()).append(';');
             }
             else if (filter instanceof PatternFilter) {
-                str += Filter.FilterType.PATTERN_FILTER.toString() + ":";
-                str += filter.toParsableString() + ";";
+                str.append(Filter.FilterType.PATTERN_FILTER.toString()).append(':');
+                str.append(filter.toParsableString()).append(';');
             }
             else if (filter instanceof InterfaceFilter) {
-                str += Filter.FilterType.INTERFACE_FILTER.toString() + ":";
-                str += filter.toParsableString() + ";";
+                str.append(Filter.FilterType.INTERFACE_FILTER.toString()).append(':');
+                str.append(filter.toParsableString()).append(';');
             }
             else if (filter instanceof NumberFilter) {
-                str += Filter.FilterType.NUMBER_FILTER.toString() + ":";
-                str += filter.toParsableString() + ";";
+                str.append(Filter.FilterType.NUMBER_FILTER.toString()).append(':');
+                str.append(filter.toParsableString()).append(';');
             }
         }
-        return str;
+        return str.toString();
+    }
+
+    /**
+     * Writes the filters in a binary format, which can be read by readFrom. Each
+     * filter is stored with its type and its versioned parsable string.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size());
+        for (Filter filter : this) {
+            FilterList single = new FilterList();
+            single.add(filter);
+            out.writeUTF(single.toParsableString());
+        }
+    }
+
+    public FilterList readFrom(DataInput in) throws IOException {
+        clear();
+        int size = in.readInt();
+        for (int i = 0; i < size; ++i)
+            addAll(new FilterList().fromParsableString(in.readUTF()));
+        return this;
     }
 
     public FilterList fromParsableString(String str) {
@@ -0,0 +1,290 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Immutable evaluation plan of a filter list for a given set of generator parameters.
+ * The number filters are compiled into match tables indexed by synchronous position
+ * and throw value, so that the generator can keep running counters for them. The
+ * pattern filters are compiled into a PatternMatcher, which is advanced with every
+ * throw. Interface filters are tested against the interface of the throws generated
+ * so far. All other filters are evaluated afterwards in a fixed order. The evaluation
+ * does not allocate any objects.
+ *
+ * Included patterns and interfaces are used for pruning as well: a partly generated
+ * siteswap is rejected, as soon as the pattern does not match at any position, where
+ * the not yet generated values are treated as wildcards.
+ */
+class FilterPlan {
+
+	/**
+	 * Evaluation state of a partly generated siteswap. The pattern matcher state is
+	 * kept for every generated position, so it does not need to be undone on
+	 * backtracking.
+	 */
+	static class State {
+		private final int[] mCounters;
+		// mPatternStates[index + 1]: matcher state after reading the throw at index
+		private final long[][] mPatternStates;
+		private final long[][] mPatternMatches;
+		private final long[] mWrapAroundState;
+		private final long[] mWrapAroundNextState;
+		private final long[] mWrapAroundMatches;
+		// generated throws and their interface, FREE if not generated yet
+		private final byte[] mThrows;
+		private final byte[] mInterface;
+
+		private State(int numberOfCounters, int periodLength, int numberOfWords) {
+			mCounters = new int[numberOfCounters];
+			mPatternStates = new long[periodLength + 1][numberOfWords];
+			mPatternMatches = new long[periodLength + 1][numberOfWords];
+			mWrapAroundState = new long[numberOfWords];
+			mWrapAroundNextState = new long[numberOfWords];
+			mWrapAroundMatches = new long[numberOfWords];
+			mThrows = new byte[periodLength];
+			mInterface = new byte[periodLength];
+			Arrays.fill(mThrows, Siteswap.FREE);
+			Arrays.fill(mInterface, Siteswap.FREE);
+		}
+
+		State(State state) {
+			this(state.mCounters.length, state.mPatternStates.length - 1,
+					state.mWrapAroundState.length);
+			System.arraycopy(state.mCounters, 0, mCounters, 0, mCounters.length);
+			for (int i = 0; i < mPatternStates.length; ++i) {
+				System.arraycopy(state.mPatternStates[i], 0, mPatternStates[i], 0,
+						mWrapAroundState.length);
+				System.arraycopy(state.mPatternMatches[i], 0,
+						mPatternMatches[i], 0, mWrapAroundState.length);
+			}
+			System.arraycopy(state.mThrows, 0, mThrows, 0, mThrows.length);
+			System.arraycopy(state.mInterface, 0, mInterface, 0, mInterface.length);
+		}
+	}
+
+	private final NumberFilter[] mNumberFilters;
+	// mMatches[filter][synchronousPosition][throwValue]
+	private final boolean[][][] mMatches;
+	private final PatternMatcher mPatternMatcher;
+	private final PatternFilter[] mIncludedPatternFilters;
+	private final InterfaceFilter[] mInterfaceFilters;
+	private final Filter[] mOtherFilters;
+	// only used for the comparison of single values
+	private final Siteswap mReference;
+	private final int mPeriodLength;
+	private final int mGlobalPeriodLength;
+
+	FilterPlan(List<Filter> filterList, int periodLength, int maxThrow,
+			   int numberOfJugglers, int numberOfSynchronousHands) {
+		LinkedList<NumberFilter> numberFilters = new LinkedList<NumberFilter>();
+		LinkedList<PatternFilter> patternFilters = new LinkedList<PatternFilter>();
+		LinkedList<PatternFilter> includedPatternFilters = new LinkedList<PatternFilter>();
+		LinkedList<InterfaceFilter> interfaceFilters = new LinkedList<InterfaceFilter>();
+		LinkedList<Filter> otherFilters = new LinkedList<Filter>();
+		if (filterList != null) {
+			for (Filter filter : filterList) {
+				if (filter instanceof NumberFilter)
+					numberFilters.add((NumberFilter) filter);
+				else if (filter instanceof InterfaceFilter)
+					interfaceFilters.add((InterfaceFilter) filter);
+				else if (filter instanceof PatternFilter &&
+						((PatternFilter) filter).mPattern.period_length() > 0) {
+					patternFilters.add((PatternFilter) filter);
+					if (((PatternFilter) filter).getType() == PatternFilter.Type.INCLUDE)
+						includedPatternFilters.add((PatternFilter) filter);
+				}
+				else
+					otherFilters.add(filter);
+			}
+		}
+		mNumberFilters = numberFilters.toArray(new NumberFilter[numberFilters.size()]);
+		mIncludedPatternFilters = includedPatternFilters.toArray(
+				new PatternFilter[includedPatternFilters.size()]);
+		mInterfaceFilters = interfaceFilters.toArray(new InterfaceFilter[interfaceFilters.size()]);
+		mOtherFilters = otherFilters.toArray(new Filter[otherFilters.size()]);
+		mPatternMatcher = new PatternMatcher(patternFilters, maxThrow, numberOfJugglers);
+
+		Siteswap reference = new Siteswap(new byte[0], numberOfJugglers);
+		mReference = reference;
+		mMatches = new boolean[mNumberFilters.length][numberOfSynchronousHands][maxThrow + 1];
+		for (int i = 0; i < mNumberFilters.length; ++i) {
+			NumberFilter.FilterValue filterValue = mNumberFilters[i].getFilterValue();
+			for (int pos = 0; pos < numberOfSynchronousHands; ++pos) {
+				for (int value : filterValue.getValues(pos)) {
+					for (int throwValue = 0; throwValue <= maxThrow; ++throwValue) {
+						if (reference.isPatternSingleValue((byte) value, (byte) throwValue))
+							mMatches[i][pos][throwValue] = true;
+					}
+				}
+			}
+		}
+
+		mPeriodLength = periodLength;
+		int globalPeriodLength = periodLength;
+		while (globalPeriodLength > 0 && globalPeriodLength % numberOfSynchronousHands != 0)
+			globalPeriodLength += periodLength;
+		mGlobalPeriodLength = globalPeriodLength;
+	}
+
+	/**
+	 * Returns a new state for an empty siteswap.
+	 */
+	State createState() {
+		return new State(mNumberFilters.length, mPeriodLength,
+				mPatternMatcher.getNumberOfWords());
+	}
+
+	/**
+	 * Resets the state to an empty siteswap.
+	 */
+	void reset(State state) {
+		Arrays.fill(state.mCounters, 0);
+		Arrays.fill(state.mThrows, Siteswap.FREE);
+		Arrays.fill(state.mInterface, Siteswap.FREE);
+	}
+
+	/**
+	 * Adds the throw at the given index to the state. All previous positions must
+	 * have been added before.
+	 */
+	void addThrow(State state, int index, int synchronousPosition, int throwValue) {
+		for (int i = 0; i < mNumberFilters.length; ++i) {
+			if (mMatches[i][synchronousPosition][throwValue])
+				state.mCounters[i]++;
+		}
+		if (mPatternMatcher.getNumberOfWords() > 0) {
+			long[] nextState = state.mPatternStates[index + 1];
+			mPatternMatcher.step(state.mPatternStates[index], nextState, throwValue, true);
+			long[] matches = state.mPatternMatches[index + 1];
+			System.arraycopy(state.mPatternMatches[index], 0, matches, 0, matches.length);
+			mPatternMatcher.addPatternMatches(nextState, matches);
+		}
+		state.mThrows[index] = (byte) throwValue;
+		if (mInterfaceFilters.length > 0)
+			state.mInterface[(index + throwValue) % mPeriodLength] = (byte) throwValue;
+	}
+
+	/**
+	 * Removes the throw at the given index on backtracking.
+	 */
+	void removeThrow(State state, int index, int synchronousPosition, int throwValue) {
+		for (int i = 0; i < mNumberFilters.length; ++i) {
+			if (mMatches[i][synchronousPosition][throwValue])
+				state.mCounters[i]--;
+		}
+		state.mThrows[index] = Siteswap.FREE;
+		if (mInterfaceFilters.length > 0)
+			state.mInterface[(index + throwValue) % mPeriodLength] = Siteswap.FREE;
+	}
+
+	/**
+	 * Tests the complete siteswap. All throws must have been added to the state.
+	 */
+	boolean isFulfilled(State state, Siteswap siteswap) {
+		// The counters only cover one period. If the global period is longer,
+		// the throws are counted several times by the filter.
+		boolean useCounters = mGlobalPeriodLength == mPeriodLength;
+		for (int i = 0; i < mNumberFilters.length; ++i) {
+			if (useCounters ? !mNumberFilters[i].isFulfilled(state.mCounters[i]) :
+					!mNumberFilters[i].isFulfilled(siteswap))
+				return false;
+		}
+		if (mPatternMatcher.getNumberOfWords() > 0 && !isPatternMatcherFulfilled(state, siteswap))
+			return false;
+		for (int i = 0; i < mInterfaceFilters.length; ++i) {
+			boolean isPattern = PatternFilter.isPattern(mInterfaceFilters[i].mPattern,
+					state.mInterface, false, mReference);
+			if (isPattern != (mInterfaceFilters[i].getType() == PatternFilter.Type.INCLUDE))
+				return false;
+		}
+		for (int i = 0; i < mOtherFilters.length; ++i) {
+			if (!mOtherFilters[i].isFulfilled(siteswap))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Tests the siteswap up to the given index. The throws at the positions 0 to
+	 * index must have been added to the state.
+	 */
+	boolean isPartlyFulfilled(State state, Siteswap siteswap, int index) {
+		for (int i = 0; i < mNumberFilters.length; ++i) {
+			if (!mNumberFilters[i].isPartlyFulfilled(state.mCounters[i], mGlobalPeriodLength, index))
+				return false;
+		}
+		if (mPatternMatcher.isExcludedPatternMatched(state.mPatternStates[index + 1]))
+			return false;
+		if (mIncludedPatternFilters.length > 0 &&
+				!mPatternMatcher.areAllIncludedPatternsMatched(state.mPatternMatches[index + 1])) {
+			for (int i = 0; i < mIncludedPatternFilters.length; ++i) {
+				if (!PatternFilter.isPattern(mIncludedPatternFilters[i].mPattern, state.mThrows,
+						true, mReference))
+					return false;
+			}
+		}
+		for (int i = 0; i < mInterfaceFilters.length; ++i) {
+			if (mInterfaceFilters[i].getType() == PatternFilter.Type.INCLUDE) {
+				if (!PatternFilter.isPattern(mInterfaceFilters[i].mPattern, state.mInterface,
+						true, mReference))
+					return false;
+			}
+			else if (PatternFilter.isPattern(mInterfaceFilters[i].mPattern, state.mInterface,
+					false, mReference))
+				return false;
+		}
+		for (int i = 0; i < mOtherFilters.length; ++i) {
+			if (!mOtherFilters[i].isPartlyFulfilled(siteswap, index))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Continues the pattern matching cyclically with the beginning of the siteswap,
+	 * until all patterns starting within the period are finished.
+	 */
+	private boolean isPatternMatcherFulfilled(State state, Siteswap siteswap) {
+		byte[] data = siteswap.getData();
+		long[] current = state.mWrapAroundState;
+		long[] next = state.mWrapAroundNextState;
+		long[] matches = state.mWrapAroundMatches;
+		System.arraycopy(state.mPatternStates[mPeriodLength], 0, current, 0, current.length);
+		System.arraycopy(state.mPatternMatches[mPeriodLength], 0, matches, 0, matches.length);
+		if (mPatternMatcher.isExcludedPatternMatched(matches))
+			return false;
+
+		for (int i = 0; i < mPatternMatcher.getMaxPatternLength() - 1; ++i) {
+			if (PatternMatcher.isZero(current))
+				break;
+			mPatternMatcher.step(current, next, data[i % mPeriodLength], false);
+			if (mPatternMatcher.isExcludedPatternMatched(next))
+				return false;
+			mPatternMatcher.addPatternMatches(next, matches);
+			long[] temp = current;
+			current = next;
+			next = temp;
+		}
+		return mPatternMatcher.areAllIncludedPatternsMatched(matches);
+	}
+}
@@ -0,0 +1,101 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Position in the search tree of the SiteswapGenerator, at which an interrupted
+ * generation can be continued. The position is given by the synchronous start
+ * position and the throws on the path from the root to the node. If the node is
+ * processed, the generation continues after the node, otherwise the node and its
+ * subtree are searched again. A cursor is only valid for the generator parameters
+ * and filters, with which it was created.
+ */
+public final class GenerationCursor implements Serializable {
+
+	private final int mSynchronousStartPosition;
+	private final byte[] mThrows;
+	private final boolean mIsProcessed;
+
+	public GenerationCursor(int synchronousStartPosition, byte[] throwsOnPath, boolean isProcessed) {
+		mSynchronousStartPosition = synchronousStartPosition;
+		mThrows = throwsOnPath.clone();
+		mIsProcessed = isProcessed;
+	}
+
+	public int getSynchronousStartPosition() {
+		return mSynchronousStartPosition;
+	}
+
+	/**
+	 * Returns the depth of the node in the search tree, i.e. the number of throws
+	 * on the path.
+	 */
+	public int getDepth() {
+		return mThrows.length;
+	}
+
+	public byte getThrow(int index) {
+		return mThrows[index];
+	}
+
+	public boolean isProcessed() {
+		return mIsProcessed;
+	}
+
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeShort(mSynchronousStartPosition);
+		out.writeShort(mThrows.length);
+		out.write(mThrows);
+		out.writeBoolean(mIsProcessed);
+	}
+
+	public static GenerationCursor readFrom(DataInput in) throws IOException {
+		int synchronousStartPosition = in.readShort();
+		byte[] throwsOnPath = new byte[in.readShort()];
+		in.readFully(throwsOnPath);
+		return new GenerationCursor(synchronousStartPosition, throwsOnPath, in.readBoolean());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof GenerationCursor))
+			return false;
+		GenerationCursor cursor = (GenerationCursor) obj;
+		return mSynchronousStartPosition == cursor.mSynchronousStartPosition &&
+				mIsProcessed == cursor.mIsProcessed && Arrays.equals(mThrows, cursor.mThrows);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * mSynchronousStartPosition + Arrays.hashCode(mThrows)) +
+				(mIsProcessed ? 1 : 0);
+	}
+
+	@Override
+	public String toString() {
+		return mSynchronousStartPosition + ":" + Arrays.toString(mThrows) +
+				(mIsProcessed ? " processed" : "");
+	}
+}
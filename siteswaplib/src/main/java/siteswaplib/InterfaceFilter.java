@@ -18,6 +18,8 @@
 
 package siteswaplib;
 
+import java.util.Arrays;
+
 /**
  * Created by tilman on 29.10.17.
  */
@@ -51,10 +53,11 @@ public class InterfaceFilter extends PatternFilter {
 
     @Override
     public String toParsableString() {
-        String str = new String();
-        str += String.valueOf(VERSION) + ",";
-        str += super.toParsableString();
-        return str;
+        String pattern = super.toParsableString();
+        StringBuilder str = new StringBuilder(pattern.length() + 8);
+        str.append(VERSION).append(',');
+        str.append(pattern);
+        return str.toString();
     }
 
     @Override
@@ -85,12 +88,20 @@ public class InterfaceFilter extends PatternFilter {
     @Override
     public boolean isPartlyFulfilled(Siteswap siteswap, int index) {
 
-        if (mType == Type.EXCLUDE) {
-            return isFulfilled(siteswap);
+        // Interface of the throws up to index. The other interface positions are
+        // still FREE, because the throws landing there are not generated yet.
+        byte[] siteswapInterface = new byte[siteswap.period_length()];
+        Arrays.fill(siteswapInterface, Siteswap.FREE);
+        for (int i = 0; i <= index && i < siteswapInterface.length; ++i) {
+            byte value = siteswap.at(i);
+            if (value >= 0)
+                siteswapInterface[(i + value) % siteswapInterface.length] = value;
         }
 
-        // Intefaces that need to be included are not checked for partly generated siteswaps
-        // at the moment
-        return true;
+        // An included interface is still possible, if it matches the known interface
+        // positions. An excluded one is rejected, as soon as it is completely matched.
+        if (mType == Type.INCLUDE)
+            return isPattern(mPattern, siteswapInterface, true, siteswap);
+        return !isPattern(mPattern, siteswapInterface, false, siteswap);
     }
 }
@@ -0,0 +1,143 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.io.Serializable;
+
+/**
+ * Search state of the SiteswapGenerator: the landing positions of the throws of a
+ * partly generated siteswap and the sum of these throws.
+ *
+ * The landing positions are cyclic with the period length. To avoid modulo operations,
+ * the occupied positions are stored unrolled in a bitmask, i.e. a throw landing at
+ * position p sets the bits p, p + period, p + 2 * period, ... up to the maximum
+ * position, that can be reached by a throw (period length + max throw). For most
+ * parameters the bitmask fits into a single long and free positions are searched with
+ * Long.numberOfTrailingZeros/numberOfLeadingZeros.
+ */
+class LandingSlots implements Serializable {
+
+	private final int mPeriodLength;
+	private final int mLength;
+	private final long[] mOccupied;
+	private int mSumOfThrows = 0;
+
+	LandingSlots(int periodLength, int maxThrow) {
+		mPeriodLength = periodLength;
+		mLength = periodLength + Math.max(maxThrow, 0) + 1;
+		mOccupied = new long[(mLength + 63) >>> 6];
+	}
+
+	LandingSlots(LandingSlots landingSlots) {
+		mPeriodLength = landingSlots.mPeriodLength;
+		mLength = landingSlots.mLength;
+		mOccupied = landingSlots.mOccupied.clone();
+		mSumOfThrows = landingSlots.mSumOfThrows;
+	}
+
+	boolean isFree(int position) {
+		return (mOccupied[position >>> 6] & (1L << position)) == 0;
+	}
+
+	/**
+	 * Adds the throw at index with the given value.
+	 */
+	void occupy(int index, int value) {
+		for (int i = (index + value) % mPeriodLength; i < mLength; i += mPeriodLength)
+			mOccupied[i >>> 6] |= (1L << i);
+		mSumOfThrows += value;
+	}
+
+	/**
+	 * Removes the throw at index with the given value.
+	 */
+	void release(int index, int value) {
+		for (int i = (index + value) % mPeriodLength; i < mLength; i += mPeriodLength)
+			mOccupied[i >>> 6] &= ~(1L << i);
+		mSumOfThrows -= value;
+	}
+
+	int getSumOfThrows() {
+		return mSumOfThrows;
+	}
+
+	/**
+	 * Returns the maximum sum of the throws at the positions index ... period - 1, that
+	 * can be reached with the free landing positions. Each throw is assigned to the
+	 * highest free position below the position of the throw after it.
+	 */
+	int getMaxSumToGenerate(int index, int maxThrow) {
+		int maxSum = 0;
+		int position = mPeriodLength + maxThrow - 2;
+		if (mOccupied.length == 1) {
+			long free = ~mOccupied[0];
+			for (int i = mPeriodLength - 1; i >= index; --i) {
+				long candidates = free & ((2L << position) - 1);
+				int freePosition = 63 - Long.numberOfLeadingZeros(candidates);
+				if (candidates == 0 || (freePosition != position && freePosition < i))
+					return 0;
+				maxSum += freePosition - i;
+				position = freePosition - 1;
+			}
+			return maxSum;
+		}
+		for (int i = mPeriodLength - 1; i >= index; --i) {
+			while (!isFree(position)) {
+				position--;
+				if (position < i)
+					return 0;
+			}
+			maxSum += position - i;
+			position--;
+		}
+		return maxSum;
+	}
+
+	/**
+	 * Returns the minimum sum of the throws at the positions index ... period - 1, that
+	 * can be reached with the free landing positions. If a throw would be higher than
+	 * maxThrow, maxThrow is returned.
+	 */
+	int getMinSumToGenerate(int index, int minThrow, int maxThrow) {
+		int minSum = 0;
+		int position = index + minThrow;
+		if (mOccupied.length == 1) {
+			long free = ~mOccupied[0];
+			for (int i = index; i < mPeriodLength; ++i) {
+				long candidates = (position < 64) ? free & (-1L << position) : 0;
+				int freePosition = (candidates == 0) ? 64 : Long.numberOfTrailingZeros(candidates);
+				if (freePosition != position && freePosition - i > maxThrow)
+					return maxThrow;
+				minSum += freePosition - i;
+				position = freePosition + 1;
+			}
+			return minSum;
+		}
+		for (int i = index; i < mPeriodLength; ++i) {
+			while (!isFree(position)) {
+				position++;
+				if ((position - i) > maxThrow)
+					return maxThrow;
+			}
+			minSum += position - i;
+			position++;
+		}
+		return minSum;
+	}
+}
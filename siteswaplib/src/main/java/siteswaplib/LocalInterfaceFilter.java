@@ -54,11 +54,12 @@ public class LocalInterfaceFilter extends InterfaceFilter {
 
     @Override
     public String toParsableString() {
-        String str = new String();
-        str += String.valueOf(VERSION) + ",";
-        str += mLocalPattern.toParsableString() + ",";
-        str += super.toParsableString();
-        return str;
+        String pattern = super.toParsableString();
+        StringBuilder str = new StringBuilder(mLocalPattern.period_length() + pattern.length() + 16);
+        str.append(VERSION).append(',');
+        mLocalPattern.appendParsableString(str).append(',');
+        str.append(pattern);
+        return str.toString();
     }
 
     @Override
@@ -2,7 +2,9 @@ package siteswaplib;
 
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class NamedSiteswaps {
 
@@ -77,7 +79,31 @@ public class NamedSiteswaps {
             new NamedSiteswap("86277", 2, "why not")
     );
 
+    static private Map<String, NamedSiteswap> namedSiteswapsByKey = null;
+
     static public List<NamedSiteswap> getListOfNamedSiteswaps() {
         return namedSiteswapsList;
     }
+
+    /**
+     * Returns the named siteswap, which is a rotation of the given siteswap with the
+     * same number of synchronous hands, or null, if the siteswap has no name.
+     */
+    static public synchronized NamedSiteswap findNamedSiteswap(Siteswap siteswap) {
+        if (namedSiteswapsByKey == null) {
+            namedSiteswapsByKey = new HashMap<String, NamedSiteswap>();
+            for (NamedSiteswap namedSiteswap : namedSiteswapsList) {
+                String key = getKey(namedSiteswap);
+                if (!namedSiteswapsByKey.containsKey(key))
+                    namedSiteswapsByKey.put(key, namedSiteswap);
+            }
+        }
+        return namedSiteswapsByKey.get(getKey(siteswap));
+    }
+
+    // Synchronous and asynchronous patterns with the same throws are different
+    // patterns, as in Siteswap.equals
+    static private String getKey(Siteswap siteswap) {
+        return (char) siteswap.getNumberOfSynchronousHands() + siteswap.canonicalKey();
+    }
 }
@@ -26,6 +26,8 @@ public class NumberFilter extends Filter {
 
 	public class FilterValue implements Serializable {
 		private int mValue;
+		// values returned by getValues for each synchronous position
+		private transient volatile int[][] mValues;
 
 		public FilterValue(int filterValue) {
 			this.mValue = filterValue;
@@ -37,12 +39,28 @@ public class NumberFilter extends Filter {
 
 		public void setValue(int value) {
 			this.mValue = value;
+			mValues = null;
 		}
 
 		// A 6p in a synchronous pattern can be either a 5 or a 7
 		// This function returns all possible numbers at a given
-		// synchronous position index
+		// synchronous position index. The returned array is cached
+		// and must not be modified.
 		public int[] getValues(int synchronousPosition) {
+			int[][] values = mValues;
+			if (values == null || values.length != mNumberOfSynchronousHands) {
+				values = new int[mNumberOfSynchronousHands][];
+				for (int i = 0; i < mNumberOfSynchronousHands; ++i)
+					values[i] = calculateValues(i);
+				mValues = values;
+			}
+			// the filter may be used for a pattern with more synchronous hands
+			if (synchronousPosition >= values.length)
+				return calculateValues(synchronousPosition);
+			return values[synchronousPosition];
+		}
+
+		private int[] calculateValues(int synchronousPosition) {
 			if (isSpecialThrow()) {
 				return new int[]{mValue};
 			}
@@ -75,6 +93,7 @@ public class NumberFilter extends Filter {
 		}
 
 		public void fromString(String strValue) {
+			mValues = null;
 			if (mNumberOfSynchronousHands > 1 &&
 					strValue.length() == 2 && strValue.charAt(1) == 'p') {
 				mValue = Siteswap.charToInt(strValue.charAt(0)) + 1;
@@ -90,6 +109,7 @@ public class NumberFilter extends Filter {
 		}
 
 		void fromParsableString(String str) {
+			mValues = null;
 			try {
 				mValue = Integer.valueOf(str);
 			}
@@ -164,44 +184,60 @@ public class NumberFilter extends Filter {
 
 	public void setNumberOfSynchronousHands(int numberOfSynchronousHands) {
 	    this.mNumberOfSynchronousHands = numberOfSynchronousHands;
+	    if (mFilterValue != null)
+	    	mFilterValue.mValues = null;
 	}
 
 	@Override
 	public boolean isFulfilled(Siteswap siteswap) {
+		return isFulfilled(siteswap.countFilterValue(mFilterValue));
+	}
+
+	/**
+	 * Tests the filter condition for the number of matching values in the
+	 * complete siteswap.
+	 */
+	public boolean isFulfilled(int count) {
 		if (mType == Type.GREATER_EQUAL)
-			return siteswap.countFilterValue(mFilterValue) >= mThresholdValue;
+			return count >= mThresholdValue;
 		if (mType == Type.SMALLER_EQUAL)
-			return siteswap.countFilterValue(mFilterValue) <= mThresholdValue;
+			return count <= mThresholdValue;
 
-		return siteswap.countFilterValue(mFilterValue) == mThresholdValue;
+		return count == mThresholdValue;
 	}
 
 	@Override
     public boolean isPartlyFulfilled(Siteswap siteswap, int index) {
+		return isPartlyFulfilled(siteswap.countFilterValuePartitially(mFilterValue, index),
+				siteswap.global_period_length(), index);
+	}
 
-        int currentCount = siteswap.countFilterValuePartitially(mFilterValue, index);
-
+	/**
+	 * Same as isPartlyFulfilled(Siteswap, int), but with the number of matching
+	 * values at the positions 0 to index already counted.
+	 */
+    public boolean isPartlyFulfilled(int currentCount, int periodLength, int index) {
         switch (mType) {
             case GREATER_EQUAL:
-                return currentCount + (siteswap.global_period_length() - index) > mThresholdValue;
+                return currentCount + (periodLength - index) > mThresholdValue;
             case SMALLER_EQUAL:
                 return currentCount <= mThresholdValue;
             case EQUAL:
                 return currentCount <= mThresholdValue &&
-                        currentCount + (siteswap.global_period_length() - index) > mThresholdValue;
+                        currentCount + (periodLength - index) > mThresholdValue;
         }
         return true;
     }
 
     @Override
 	public String toParsableString() {
-		String str = new String();
-		str += String.valueOf(VERSION) + ",";
-		str += mType.toString() + ",";
-		str += String.valueOf(mFilterValue.mValue) + ",";
-		str += String.valueOf(mNumberOfSynchronousHands) + ",";
-		str += String.valueOf(mThresholdValue) + ",";
-		return str;
+		StringBuilder str = new StringBuilder(32);
+		str.append(VERSION).append(',');
+		str.append(mType.toString()).append(',');
+		str.append(mFilterValue.mValue).append(',');
+		str.append(mNumberOfSynchronousHands).append(',');
+		str.append(mThresholdValue).append(',');
+		return str.toString();
 	}
 
 	@Override
@@ -18,6 +18,8 @@
 
 package siteswaplib;
 
+import java.util.Arrays;
+
 public class PatternFilter extends Filter {
 
 	public enum Type {EXCLUDE, INCLUDE}
@@ -48,12 +50,15 @@ public class PatternFilter extends Filter {
 
 	@Override
 	public boolean isPartlyFulfilled(Siteswap siteswap, int index) {
-		if (mType == Type.INCLUDE)
-			return true; // TODO return false, if it is impossible to fulfill pattern
 		switch (mType)
 		{
 			case INCLUDE:
-				break;
+				// the throws after index are not generated yet and can match any value
+				byte[] values = new byte[siteswap.period_length()];
+				Arrays.fill(values, Siteswap.FREE);
+				for (int i = 0; i <= index && i < values.length; ++i)
+					values[i] = siteswap.at(i);
+				return isPattern(mPattern, values, true, siteswap);
 			case EXCLUDE:
 				if (index < mPattern.period_length() - 1)
 					return true;
@@ -64,11 +69,11 @@ public class PatternFilter extends Filter {
 
 	@Override
 	public String toParsableString() {
-		String str = new String();
-		str += String.valueOf(VERSION) + ",";
-		str += mPattern.toParsableString() + ",";
-		str += mType.toString() + ",";
-		return str;
+		StringBuilder str = new StringBuilder(mPattern.period_length() + 32);
+		str.append(VERSION).append(',');
+		mPattern.appendParsableString(str).append(',');
+		str.append(mType.toString()).append(',');
+		return str.toString();
 	}
 
 	@Override
@@ -103,6 +108,32 @@ public class PatternFilter extends Filter {
 		return mType.equals(rhs.mType) && mPattern.equals(rhs.mPattern);
 	}
 
+	/**
+	 * Tests, if the pattern is contained in the cyclically repeated values. If
+	 * isFreeWildcard is true, FREE values match every pattern value, because they
+	 * are not known yet. Otherwise they never match. The siteswap is only used
+	 * for the comparison of single values.
+	 */
+	static boolean isPattern(Siteswap pattern, byte[] values, boolean isFreeWildcard,
+							 Siteswap siteswap) {
+		int patternLength = pattern.period_length();
+		for (int start = 0; start < values.length; ++start) {
+			int i = 0;
+			int position = start;
+			for (; i < patternLength; ++i) {
+				byte value = values[position];
+				if (value == Siteswap.FREE ? !isFreeWildcard :
+						!siteswap.isPatternSingleValue(pattern.at(i), value))
+					break;
+				if (++position == values.length)
+					position = 0;
+			}
+			if (i == patternLength)
+				return true;
+		}
+		return false;
+	}
+
 	public Type getType() {
 		return mType;
 	}
@@ -0,0 +1,142 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.List;
+
+/**
+ * Matches several patterns at once with a bit parallel (shift-and) automaton over
+ * the throw values. Every pattern position is represented by one bit of the state.
+ * After reading a throw, a bit is set, if the pattern up to this position matches
+ * the last throws. The wildcards SELF, PASS and DONT_CARE are resolved into the
+ * match masks of the throw values, so that reading a throw is a single shift, or
+ * and and operation per state word, independent of the number of patterns.
+ */
+class PatternMatcher {
+
+	private final int mNumberOfWords;
+	private final int mMaxPatternLength;
+	// mMasks[throwValue][word]: pattern positions matching the throw value
+	private final long[][] mMasks;
+	private final long[] mStartBits;
+	private final long[] mExcludeAcceptBits;
+	private final long[] mIncludeAcceptBits;
+
+	PatternMatcher(List<PatternFilter> filters, int maxThrow, int numberOfJugglers) {
+		int numberOfBits = 0;
+		int maxPatternLength = 0;
+		for (PatternFilter filter : filters) {
+			numberOfBits += filter.mPattern.period_length();
+			maxPatternLength = Math.max(maxPatternLength, filter.mPattern.period_length());
+		}
+		mNumberOfWords = (numberOfBits + 63) / 64;
+		mMaxPatternLength = maxPatternLength;
+		mMasks = new long[maxThrow + 1][mNumberOfWords];
+		mStartBits = new long[mNumberOfWords];
+		mExcludeAcceptBits = new long[mNumberOfWords];
+		mIncludeAcceptBits = new long[mNumberOfWords];
+
+		Siteswap reference = new Siteswap(new byte[0], numberOfJugglers);
+		int bit = 0;
+		for (PatternFilter filter : filters) {
+			Siteswap pattern = filter.mPattern;
+			setBit(mStartBits, bit);
+			for (int i = 0; i < pattern.period_length(); ++i) {
+				for (int throwValue = 0; throwValue <= maxThrow; ++throwValue) {
+					if (reference.isPatternSingleValue(pattern.at(i), (byte) throwValue))
+						setBit(mMasks[throwValue], bit);
+				}
+				++bit;
+			}
+			if (filter.getType() == PatternFilter.Type.INCLUDE)
+				setBit(mIncludeAcceptBits, bit - 1);
+			else
+				setBit(mExcludeAcceptBits, bit - 1);
+		}
+	}
+
+	private static void setBit(long[] bits, int bit) {
+		bits[bit / 64] |= 1L << (bit % 64);
+	}
+
+	int getNumberOfWords() {
+		return mNumberOfWords;
+	}
+
+	int getMaxPatternLength() {
+		return mMaxPatternLength;
+	}
+
+	/**
+	 * Reads the next throw. If startPatterns is true, new matches may start at this
+	 * throw, otherwise only the already started matches are continued.
+	 */
+	void step(long[] state, long[] nextState, int throwValue, boolean startPatterns) {
+		long[] mask = mMasks[throwValue];
+		long carry = 0;
+		for (int i = 0; i < mNumberOfWords; ++i) {
+			long word = state[i];
+			// The bit shifted from the last position of a pattern into the first
+			// position of the next one is always overwritten by the start bits.
+			long shifted = (word << 1) | carry;
+			carry = word >>> 63;
+			if (startPatterns)
+				shifted |= mStartBits[i];
+			else
+				shifted &= ~mStartBits[i];
+			nextState[i] = shifted & mask[i];
+		}
+	}
+
+	/**
+	 * Returns true, if an excluded pattern ends at the last read throw or, if
+	 * called with the collected matches, if it was matched anywhere.
+	 */
+	boolean isExcludedPatternMatched(long[] state) {
+		for (int i = 0; i < mNumberOfWords; ++i) {
+			if ((state[i] & mExcludeAcceptBits[i]) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Collects the patterns, that end at the last read throw.
+	 */
+	void addPatternMatches(long[] state, long[] matches) {
+		for (int i = 0; i < mNumberOfWords; ++i)
+			matches[i] |= state[i] & (mIncludeAcceptBits[i] | mExcludeAcceptBits[i]);
+	}
+
+	boolean areAllIncludedPatternsMatched(long[] matches) {
+		for (int i = 0; i < mNumberOfWords; ++i) {
+			if ((matches[i] & mIncludeAcceptBits[i]) != mIncludeAcceptBits[i])
+				return false;
+		}
+		return true;
+	}
+
+	static boolean isZero(long[] state) {
+		for (long word : state) {
+			if (word != 0)
+				return false;
+		}
+		return true;
+	}
+}
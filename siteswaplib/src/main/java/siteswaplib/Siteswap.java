@@ -18,6 +18,9 @@
 
 package siteswaplib;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.*;
 import java.io.Serializable;
@@ -41,6 +44,19 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 	// 0, ... n-1 within the synchronous throws. The position of siteswap.at(0) is coded
 	// in mSynchronousStartPosition and is adapted on every rotation of the siteswap.
 	private int mSynchronousStartPosition = 0;
+	// Cached result of toString, which is reset on every modification
+	private transient String mString = null;
+
+	// Characters of all throw heights, which can be stored in a siteswap
+	private static final char[] THROW_CHARACTERS = new char[Byte.MAX_VALUE + 1];
+	// Divided throw heights in local notation for a small number of jugglers
+	private static final int MAX_JUGGLERS_DIVIDED_TABLE = 16;
+	private static final String[][] DIVIDED_THROW_STRINGS = new String[MAX_JUGGLERS_DIVIDED_TABLE + 1][];
+
+	static {
+		for (int i = 0; i < THROW_CHARACTERS.length; ++i)
+			THROW_CHARACTERS[i] = intToChar(i);
+	}
 
 	public Siteswap() {
 		this(new byte[0]);
@@ -99,6 +115,13 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 
 	public void set(int index, int value) {
 		mData.modify(index, (byte) value);
+		mString = null;
+	}
+
+	// Direct access to the underlying array for the generator, which never rotates
+	// its siteswaps. Writes to the array do not reset the cached string.
+	byte[] getData() {
+		return mData.getData();
 	}
 
 	public int period_length() {
@@ -139,6 +162,7 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 		byte temp = mData.at(index + 1);
 		mData.modify(index+1, (byte) (mData.at(index) - 1));
 		mData.modify(index, (byte) (temp + 1));
+		mString = null;
 	}
 
 	public int getMaxThrow() {
@@ -164,6 +188,7 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 		this.mNumberOfJugglers = numberOfJugglers;
 		if (numberOfJugglers < 1)
 			this.mNumberOfJugglers = 1;
+		mString = null;
 	}
 
 	public boolean setNumberOfSynchronousHands(int numberOfSynchronousHands) {
@@ -172,6 +197,7 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 		if (getNumberOfHands() % numberOfSynchronousHands != 0)
 			return false;
 		mNumberOfSynchronousHands = numberOfSynchronousHands;
+		mString = null;
 		return true;
 	}
 
@@ -181,6 +207,7 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 
 	public void setSynchronousStartPosition(int synchronousStartPosition) {
 		mSynchronousStartPosition = synchronousStartPosition % getNumberOfSynchronousHands();
+		mString = null;
 	}
 
 	public int getSynchronousStartPosition() {
@@ -246,27 +273,33 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 		mSynchronousStartPosition = (mSynchronousStartPosition - positions) % getNumberOfSynchronousHands();
 		if (mSynchronousStartPosition < 0)
 			mSynchronousStartPosition += getNumberOfSynchronousHands();
+		mString = null;
 	}
 
 	public void rotateLeft(int positions) {
 		mData.rotateLeft(positions);
 		mSynchronousStartPosition = (mSynchronousStartPosition + positions) % getNumberOfSynchronousHands();
+		mString = null;
 	}
 
 	public void make_unique_representation()
 	{
+		mData.rotateLeft(mData.getMaxRotationIndex());
+		mString = null;
+	}
 
-		Siteswap temp = new Siteswap(this);
-		int rotate_counter = 0;
-
-		for(int i = 0; i < period_length(); ++i) {
-			if (compareTo(temp) < 0) {
-				mData.rotateRight(rotate_counter);
-				rotate_counter = 0;
-			}
-			temp.rotateRight(1);
-			rotate_counter++;
-		}
+	/**
+	 * Returns a key, which is equal for two siteswaps, if and only if they are
+	 * rotations of each other, i.e. if they have the same unique representation.
+	 * The key is intended for hashing and sorting and is not human readable.
+	 */
+	public String canonicalKey() {
+		int length = period_length();
+		int start = mData.getMaxRotationIndex();
+		char[] key = new char[length];
+		for (int i = 0; i < length; ++i)
+			key[i] = (char) (mData.at(start + i) & 0xff);
+		return new String(key);
 	}
 
 
@@ -656,13 +689,13 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 		if (mNumberOfJugglers == 1)
 			return toString();
 
-		String str = new String();
-		DecimalFormat formatter = new DecimalFormat("0.#");
+		String[] dividedThrows = getDividedThrowStrings(mNumberOfJugglers);
+		StringBuilder str = new StringBuilder(period_length() * 10);
 		for(int i = 0; i < period_length(); ++i) {
-			str += formatter.format(at(i) / (double) mNumberOfJugglers);
-			str += "&ensp;";
+			appendDividedThrow(str, dividedThrows, at(i));
+			str.append("&ensp;");
 		}
-		return str;
+		return str.toString();
 	}
 
 	public Vector<String> toLocalString() {
@@ -673,25 +706,26 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 			return localSiteswapStrings;
 		}
 
+		String[] dividedThrows = getDividedThrowStrings(mNumberOfJugglers);
+		StringBuilder str = new StringBuilder(local_period_length() * 40);
 		for(int juggler = 0; juggler < mNumberOfJugglers; ++juggler) {
-			String str = new String();
-			DecimalFormat formatter = new DecimalFormat("0.#");
+			str.setLength(0);
 			for(int i = 0; i < local_period_length(); ++i) {
 				int position = juggler + i*mNumberOfJugglers;
-				str += formatter.format(atSyncCorrected(position) / (double) mNumberOfJugglers);
+				appendDividedThrow(str, dividedThrows, atSyncCorrected(position));
 				if (Siteswap.isPass(at(position), mNumberOfJugglers)) {
-					str += "<sub><small>";
+					str.append("<sub><small>");
 					if (mNumberOfJugglers >= 3)
-						str += Character.toString((char) ('A' + (position + at(position)) % mNumberOfJugglers));
+						str.append((char) ('A' + (position + at(position)) % mNumberOfJugglers));
 					if (((juggler + at(position)) / mNumberOfJugglers) % 2 == 0)
-						str += "x";
+						str.append('x');
 					else
-						str += "||";
-					str += "</small></sub>";
+						str.append("||");
+					str.append("</small></sub>");
 				}
-				str += "&ensp;";
+				str.append("&ensp;");
 			}
-			localSiteswapStrings.add(str);
+			localSiteswapStrings.add(str.toString());
 		}
 
 		return localSiteswapStrings;
@@ -709,13 +743,108 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 	}
 
 	@Override
-	public String toString() {
-		if (isSynchronous()) {
-			return toSyncStringLocalVsLocal();
+	public int hashCode() {
+		int hash = getNumberOfSynchronousHands();
+		for (int i = 0; i < period_length(); ++i)
+			hash = 31 * hash + at(i);
+		return hash;
+	}
+
+	/**
+	 * Returns a hash code, which is equal for all rotations of the siteswap. For
+	 * synchronous siteswaps the synchronous start position is rotated as well, i.e.
+	 * the hash code identifies the juggled pattern independent of the first throw.
+	 */
+	public int rotationInvariantHashCode() {
+		byte[] data = toArray();
+		int rotation = CyclicByteArray.getMaxRotationIndex(data, 0);
+		int hash = 31 * getNumberOfSynchronousHands() + getCanonicalSynchronousStartPosition(
+				data, rotation, getNumberOfSynchronousHands(), getSynchronousStartPosition());
+		for (int i = 0; i < data.length; ++i)
+			hash = 31 * hash + data[(rotation + i) % data.length];
+		return hash;
+	}
+
+	/**
+	 * Returns the synchronous start position of the siteswap rotated left by
+	 * maxRotationIndex. If the throws repeat within the period, the same throws
+	 * can be reached with different start positions and the smallest one is used.
+	 */
+	static int getCanonicalSynchronousStartPosition(byte[] data, int maxRotationIndex,
+													int numberOfSynchronousHands,
+													int synchronousStartPosition) {
+		if (numberOfSynchronousHands <= 1)
+			return 0;
+		int period = CyclicByteArray.getExactPeriod(data);
+		int divisor = numberOfSynchronousHands;
+		while (period != 0) {
+			int temp = divisor % period;
+			divisor = period;
+			period = temp;
 		}
-		else {
-			return toAsyncString();
+		return (synchronousStartPosition + maxRotationIndex) % divisor;
+	}
+
+	/**
+	 * Returns the divided throw heights for the given number of jugglers as
+	 * formatted by DecimalFormat("0.#"), indexed by the throw height. Returns
+	 * null, if the table is not cached for this number of jugglers.
+	 */
+	private static synchronized String[] getDividedThrowStrings(int numberOfJugglers) {
+		if (numberOfJugglers > MAX_JUGGLERS_DIVIDED_TABLE)
+			return null;
+		String[] dividedThrows = DIVIDED_THROW_STRINGS[numberOfJugglers];
+		if (dividedThrows == null) {
+			DecimalFormat formatter = new DecimalFormat("0.#");
+			dividedThrows = new String[Byte.MAX_VALUE + 1];
+			for (int i = 0; i < dividedThrows.length; ++i)
+				dividedThrows[i] = formatter.format(i / (double) numberOfJugglers);
+			DIVIDED_THROW_STRINGS[numberOfJugglers] = dividedThrows;
+		}
+		return dividedThrows;
+	}
+
+	private void appendDividedThrow(StringBuilder str, String[] dividedThrows, int value) {
+		if (dividedThrows != null && value >= 0)
+			str.append(dividedThrows[value]);
+		else
+			str.append(new DecimalFormat("0.#").format(value / (double) mNumberOfJugglers));
+	}
+
+	private static void appendThrow(StringBuilder str, int value) {
+		if (value >= 0 && value < THROW_CHARACTERS.length)
+			str.append(THROW_CHARACTERS[value]);
+		else
+			str.append(intToChar(value));
+	}
+
+	/**
+	 * Returns the same string as toString. The string is cached until the
+	 * siteswap is modified, so that lists of siteswaps can be displayed and
+	 * searched repeatedly without creating new strings.
+	 */
+	@Override
+	public String toString() {
+		String str = mString;
+		if (str == null) {
+			StringBuilder builder = new StringBuilder(2 * global_period_length() + 4 * getNumberOfJugglers());
+			appendTo(builder);
+			str = builder.toString();
+			mString = str;
 		}
+		return str;
+	}
+
+	/**
+	 * Appends the string representation returned by toString.
+	 */
+	public StringBuilder appendTo(StringBuilder str) {
+		if (mString != null)
+			return str.append(mString);
+		if (isSynchronous())
+			return appendSyncStringLocalVsLocal(str);
+		else
+			return appendAsyncString(str);
 	}
 
     public String toGlobalString() {
@@ -728,41 +857,51 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
     }
 
 	public String toAsyncString() {
-		String str = new String();
-		for (byte value : mData) {
-			str += Character.toString(intToChar(value));
-		}
+		return appendAsyncString(new StringBuilder(period_length())).toString();
+	}
+
+	public StringBuilder appendAsyncString(StringBuilder str) {
+		for (int i = 0; i < period_length(); ++i)
+			appendThrow(str, at(i));
 		return str;
 	}
 
 	public String toSyncStringLocalVsLocal() {
-		String str = new String();
+		return appendSyncStringLocalVsLocal(new StringBuilder(
+				2 * global_period_length() + 5 * getNumberOfJugglers())).toString();
+	}
+
+	public StringBuilder appendSyncStringLocalVsLocal(StringBuilder str) {
 		for (int juggler = 0; juggler < getNumberOfJugglers(); ++juggler) {
-			str += Character.toString((char) ('A' + juggler)) + ": ";
+			str.append((char) ('A' + juggler)).append(": ");
 			for (int i = 0; i < local_period_length(); ++i) {
 				int index = i*getNumberOfJugglers() + juggler;
 				int value = atSyncCorrected(index) / getNumberOfJugglers();
-				str += Character.toString(intToChar(value));
+				appendThrow(str, value);
 				if (isPass(at(index), getNumberOfJugglers())) {
-					str += "p";
+					str.append('p');
 				}
 			}
-			str += "  ";
+			str.append("  ");
 		}
 		return str;
 	}
 
 	public String toSyncStringGlobalRepresentation() {
-		String str = new String();
+		return appendSyncStringGlobalRepresentation(new StringBuilder(
+				3 * global_period_length())).toString();
+	}
+
+	public StringBuilder appendSyncStringGlobalRepresentation(StringBuilder str) {
 		for (int i = 0; i < global_period_length(); ++i) {
 			byte value = atSyncCorrected(i);
 			if (getSynchronousPosition(i) == 0)
-				str += "(";
-			str += Character.toString(intToChar(value));
+				str.append('(');
+			appendThrow(str, value);
 			if (isPass(at(i), getNumberOfJugglers()))
-				str += "p";
+				str.append('p');
 			if (getSynchronousPosition(i) == (getNumberOfSynchronousHands() - 1))
-				str += ")";
+				str.append(')');
 		}
 		return str;
 	}
@@ -825,6 +964,7 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 		try {
 			if (arr.length >= 1) {
 				this.mData = new CyclicByteArray(parseString(arr[0]));
+				mString = null;
 			}
 			if (arr.length >= 2) {
 				i = 1;
@@ -848,10 +988,37 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 	}
 
 	public String toParsableString() {
-		return toAsyncString() + "." +
-				String.valueOf(getNumberOfJugglers()) + "." +
-				String.valueOf(getNumberOfSynchronousHands()) + "." +
-				String .valueOf(getSynchronousStartPosition());
+		return appendParsableString(new StringBuilder(period_length() + 8)).toString();
+	}
+
+	public StringBuilder appendParsableString(StringBuilder str) {
+		return appendAsyncString(str).append('.')
+				.append(getNumberOfJugglers()).append('.')
+				.append(getNumberOfSynchronousHands()).append('.')
+				.append(getSynchronousStartPosition());
+	}
+
+	/**
+	 * Writes the siteswap in a compact binary format, which can be read by readFrom.
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeShort(period_length());
+		for (int i = 0; i < period_length(); ++i)
+			out.writeByte(at(i));
+		out.writeShort(getNumberOfJugglers());
+		out.writeShort(getNumberOfSynchronousHands());
+		out.writeShort(getSynchronousStartPosition());
+		out.writeUTF(getSiteswapName());
+	}
+
+	public static Siteswap readFrom(DataInput in) throws IOException {
+		byte[] data = new byte[in.readShort()];
+		in.readFully(data);
+		Siteswap siteswap = new Siteswap(data, in.readShort());
+		siteswap.setNumberOfSynchronousHands(in.readShort());
+		siteswap.setSynchronousStartPosition(in.readShort());
+		siteswap.setSiteswapName(in.readUTF());
+		return siteswap;
 	}
 
 	public Siteswap toPattern() {
@@ -951,7 +1118,7 @@ public class Siteswap implements Comparable<Siteswap>, Iterable<Byte>, Serializa
 	}
 
 	public String stringAt(int index) {
-		return Character.toString(intToChar(atSyncCorrected(index)));
+		return String.valueOf(intToChar(atSyncCorrected(index)));
 	}
 
 	public static String intToString(int value) {
@@ -0,0 +1,453 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command line entry point, which generates the siteswaps of all combinations of
+ * parameter ranges, e.g.
+ *
+ *     java -jar siteswaplib.jar --objects 5..9 --period 3..9 --max-throw c --jugglers 2..4
+ *
+ * The runs are generated in parallel by a fixed number of threads. The siteswaps are
+ * streamed as NDJSON, CSV or binary records, each tagged with the index of its run.
+ * When a run ends, its parameters, status, number of results and time are written
+ * to the report, which is NDJSON for the NDJSON and binary format and CSV otherwise.
+ *
+ * The binary format starts with BINARY_FORMAT_VERSION as int, followed by the
+ * records: the run index as int and the siteswap as written by Siteswap.writeTo.
+ */
+public class SiteswapBatch {
+
+	public enum Format {NDJSON, CSV, BINARY}
+
+	public static final int BINARY_FORMAT_VERSION = 1;
+	// Size, at which the buffered records of a run are written to the output
+	static final private int FLUSH_SIZE = 1 << 16;
+	static final private Charset UTF_8 = Charset.forName("UTF-8");
+
+	static final private String USAGE =
+			"Usage: SiteswapBatch [options]\n" +
+			"  --objects RANGE      number of objects, e.g. 5, 5..9 or 5,7 (required)\n" +
+			"  --period RANGE       period length (required)\n" +
+			"  --max-throw RANGE    maximum throw, as number or siteswap character (required)\n" +
+			"  --min-throw VALUE    minimum throw (default 0)\n" +
+			"  --jugglers RANGE     number of jugglers (default 1)\n" +
+			"  --sync               generate synchronous patterns\n" +
+			"  --filters STRING     filter list as FilterList.toParsableString(),\n" +
+			"                       default are the default filters of each run\n" +
+			"  --max-results N      maximum number of results per run\n" +
+			"  --timeout SECONDS    timeout per run (default 3600)\n" +
+			"  --threads N          number of parallel runs (default number of processors)\n" +
+			"  --format FORMAT      ndjson, csv or binary (default ndjson)\n" +
+			"  --output FILE        output file (default stdout)\n" +
+			"  --report FILE        report file (default stderr)\n";
+
+	private int[] mNumbersOfObjects = null;
+	private int[] mPeriodLengths = null;
+	private int[] mMaxThrows = null;
+	private int mMinThrow = 0;
+	private int[] mNumbersOfJugglers = {1};
+	private boolean mIsSync = false;
+	// Filters of all runs or null for the default filters of each run
+	private FilterList mFilters = null;
+	private int mMaxResults = 1000000000;
+	private int mTimeoutSeconds = 3600;
+	private int mNumberOfThreads = Runtime.getRuntime().availableProcessors();
+	private Format mFormat = Format.NDJSON;
+	private String mOutputFile = null;
+	private String mReportFile = null;
+	private List<Run> mRuns;
+
+	/**
+	 * Parses the command line arguments. Throws an IllegalArgumentException, if an
+	 * argument is invalid.
+	 */
+	public SiteswapBatch(String... args) {
+		for (int i = 0; i < args.length; ++i) {
+			String option = args[i];
+			if (option.equals("--sync")) {
+				mIsSync = true;
+				continue;
+			}
+			if (i + 1 >= args.length)
+				throw new IllegalArgumentException("Missing value of " + option);
+			String value = args[++i];
+			if (option.equals("--objects"))
+				mNumbersOfObjects = parseRange(value);
+			else if (option.equals("--period"))
+				mPeriodLengths = parseRange(value);
+			else if (option.equals("--max-throw"))
+				mMaxThrows = parseRange(value);
+			else if (option.equals("--min-throw"))
+				mMinThrow = parseValue(value);
+			else if (option.equals("--jugglers"))
+				mNumbersOfJugglers = parseRange(value);
+			else if (option.equals("--filters"))
+				mFilters = parseFilters(value);
+			else if (option.equals("--max-results"))
+				mMaxResults = parseValue(value);
+			else if (option.equals("--timeout"))
+				mTimeoutSeconds = parseValue(value);
+			else if (option.equals("--threads"))
+				mNumberOfThreads = Math.max(1, parseValue(value));
+			else if (option.equals("--format"))
+				mFormat = parseFormat(value);
+			else if (option.equals("--output"))
+				mOutputFile = value;
+			else if (option.equals("--report"))
+				mReportFile = value;
+			else
+				throw new IllegalArgumentException("Unknown option " + option);
+		}
+		if (mNumbersOfObjects == null || mPeriodLengths == null || mMaxThrows == null)
+			throw new IllegalArgumentException("--objects, --period and --max-throw are required");
+
+		mRuns = new ArrayList<Run>();
+		for (int numberOfJugglers : mNumbersOfJugglers) {
+			for (int numberOfObjects : mNumbersOfObjects) {
+				for (int maxThrow : mMaxThrows) {
+					for (int periodLength : mPeriodLengths)
+						mRuns.add(new Run(mRuns.size(), numberOfObjects, periodLength, maxThrow, numberOfJugglers));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Parses a value like 5, a range like 5..9 or a list like 5,7,9..11.
+	 */
+	static int[] parseRange(String str) {
+		List<Integer> values = new ArrayList<Integer>();
+		for (String part : str.split(",")) {
+			int separator = part.indexOf("..");
+			if (separator < 0) {
+				values.add(parseValue(part));
+				continue;
+			}
+			int first = parseValue(part.substring(0, separator));
+			int last = parseValue(part.substring(separator + 2));
+			if (last < first)
+				throw new IllegalArgumentException("Empty range " + part);
+			for (int value = first; value <= last; ++value)
+				values.add(value);
+		}
+		int[] range = new int[values.size()];
+		for (int i = 0; i < range.length; ++i)
+			range[i] = values.get(i);
+		return range;
+	}
+
+	/**
+	 * Parses a number or a single siteswap character like c.
+	 */
+	static int parseValue(String str) {
+		str = str.trim();
+		if (str.length() == 1) {
+			int value = Siteswap.charToInt(str.charAt(0));
+			if (value >= 0)
+				return value;
+		}
+		try {
+			int value = Integer.parseInt(str);
+			if (value < 0)
+				throw new IllegalArgumentException("Negative value " + str);
+			return value;
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid value " + str);
+		}
+	}
+
+	/**
+	 * Parses a filter list in the format of FilterList.toParsableString.
+	 */
+	static private FilterList parseFilters(String str) {
+		try {
+			return new FilterList().fromParsableString(str);
+		}
+		catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid filters " + str);
+		}
+	}
+
+	static private Format parseFormat(String str) {
+		try {
+			return Format.valueOf(str.toUpperCase());
+		}
+		catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown format " + str);
+		}
+	}
+
+	public List<Run> getRuns() {
+		return mRuns;
+	}
+
+	public Format getFormat() {
+		return mFormat;
+	}
+
+	/**
+	 * Generates all runs and writes the siteswaps to the output and the status of
+	 * each run to the report. Returns false, if a run did not find all siteswaps.
+	 */
+	public boolean run(OutputStream output, OutputStream report) throws IOException, InterruptedException {
+		final OutputStream bufferedOutput = new BufferedOutputStream(output, FLUSH_SIZE);
+		final PrintStream reportStream = new PrintStream(report, true, "UTF-8");
+		if (mFormat == Format.BINARY)
+			new DataOutputStream(bufferedOutput).writeInt(BINARY_FORMAT_VERSION);
+		else if (mFormat == Format.CSV)
+			bufferedOutput.write("run,siteswap\n".getBytes(UTF_8));
+		if (mFormat == Format.CSV)
+			reportStream.println("run,objects,period,maxThrow,minThrow,jugglers,sync,status,results,millis");
+
+		ExecutorService executor = Executors.newFixedThreadPool(mNumberOfThreads);
+		for (final Run run : mRuns) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						generate(run, bufferedOutput);
+					}
+					catch (IOException e) {
+						run.mError = e.toString();
+					}
+					catch (RuntimeException e) {
+						run.mError = e.toString();
+					}
+					synchronized (reportStream) {
+						reportStream.println(run.toReportString(mFormat == Format.CSV));
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		bufferedOutput.flush();
+
+		boolean isComplete = true;
+		for (Run run : mRuns) {
+			if (run.mStatus != SiteswapGenerator.Status.ALL_SITESWAPS_FOUND || run.mError != null)
+				isComplete = false;
+		}
+		return isComplete;
+	}
+
+	private void generate(final Run run, final OutputStream output) throws IOException {
+		int numberOfSynchronousHands = mIsSync ? run.mNumberOfJugglers : 1;
+		// The filters are not modified by the generators and can be shared
+		FilterList filters = (mFilters == null) ?
+				new FilterList(run.mNumberOfJugglers, numberOfSynchronousHands) : mFilters;
+		final SiteswapGenerator generator = new SiteswapGenerator(run.mPeriodLength,
+				run.mMaxThrow, mMinThrow, run.mNumberOfObjects, run.mNumberOfJugglers, filters);
+		generator.setSyncPattern(mIsSync);
+		generator.setMaxResults(mMaxResults);
+		generator.setTimeoutSeconds(mTimeoutSeconds);
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream(2 * FLUSH_SIZE);
+		final DataOutputStream data = new DataOutputStream(buffer);
+		final StringBuilder line = new StringBuilder(64);
+		final IOException[] error = new IOException[1];
+		long startTime = System.currentTimeMillis();
+		run.mStatus = generator.generateSiteswaps(new SiteswapSink() {
+			@Override
+			public boolean accept(byte[] siteswapData, int synchronousStartPosition) {
+				Siteswap siteswap = new Siteswap(siteswapData, run.mNumberOfJugglers);
+				siteswap.setNumberOfSynchronousHands(generator.getNumberOfSynchronousHands());
+				siteswap.setSynchronousStartPosition(synchronousStartPosition);
+				try {
+					if (mFormat == Format.BINARY) {
+						data.writeInt(run.mIndex);
+						siteswap.writeTo(data);
+					}
+					else {
+						line.setLength(0);
+						appendRecord(line, run.mIndex, siteswap, mFormat == Format.CSV);
+						buffer.write(line.toString().getBytes(UTF_8));
+					}
+					if (buffer.size() >= FLUSH_SIZE)
+						flush(buffer, output);
+				}
+				catch (IOException e) {
+					error[0] = e;
+					return false;
+				}
+				return true;
+			}
+		});
+		run.mMillis = System.currentTimeMillis() - startTime;
+		run.mNumberOfResults = generator.getNumberOfGeneratedSiteswaps();
+		if (error[0] != null)
+			throw error[0];
+		flush(buffer, output);
+	}
+
+	static private void flush(ByteArrayOutputStream buffer, OutputStream output) throws IOException {
+		synchronized (output) {
+			buffer.writeTo(output);
+		}
+		buffer.reset();
+	}
+
+	static void appendRecord(StringBuilder str, int runIndex, Siteswap siteswap, boolean isCsv) {
+		if (isCsv) {
+			str.append(runIndex).append(',');
+			appendCsvString(str, siteswap.toString());
+		}
+		else {
+			str.append("{\"run\":").append(runIndex).append(",\"siteswap\":");
+			appendJsonString(str, siteswap.toString());
+			str.append('}');
+		}
+		str.append('\n');
+	}
+
+	static private void appendCsvString(StringBuilder str, String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+			str.append(value);
+			return;
+		}
+		str.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+
+	static private void appendJsonString(StringBuilder str, String value) {
+		str.append('"');
+		for (int i = 0; i < value.length(); ++i) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\')
+				str.append('\\');
+			str.append(c);
+		}
+		str.append('"');
+	}
+
+	/**
+	 * Parameters and result of a single generation.
+	 */
+	public class Run {
+		private final int mIndex;
+		private final int mNumberOfObjects;
+		private final int mPeriodLength;
+		private final int mMaxThrow;
+		private final int mNumberOfJugglers;
+		private volatile SiteswapGenerator.Status mStatus = null;
+		private volatile long mNumberOfResults = 0;
+		private volatile long mMillis = 0;
+		private volatile String mError = null;
+
+		Run(int index, int numberOfObjects, int periodLength, int maxThrow, int numberOfJugglers) {
+			mIndex = index;
+			mNumberOfObjects = numberOfObjects;
+			mPeriodLength = periodLength;
+			mMaxThrow = maxThrow;
+			mNumberOfJugglers = numberOfJugglers;
+		}
+
+		public int getIndex() {
+			return mIndex;
+		}
+
+		public SiteswapGenerator.Status getStatus() {
+			return mStatus;
+		}
+
+		public long getNumberOfResults() {
+			return mNumberOfResults;
+		}
+
+		public long getMillis() {
+			return mMillis;
+		}
+
+		String toReportString(boolean isCsv) {
+			String status = (mError != null) ? "ERROR" : String.valueOf(mStatus);
+			StringBuilder str = new StringBuilder(128);
+			if (isCsv) {
+				str.append(mIndex).append(',').append(mNumberOfObjects).append(',');
+				str.append(mPeriodLength).append(',').append(mMaxThrow).append(',');
+				str.append(mMinThrow).append(',').append(mNumberOfJugglers).append(',');
+				str.append(mIsSync).append(',').append(status).append(',');
+				str.append(mNumberOfResults).append(',').append(mMillis);
+				return str.toString();
+			}
+			str.append("{\"run\":").append(mIndex);
+			str.append(",\"objects\":").append(mNumberOfObjects);
+			str.append(",\"period\":").append(mPeriodLength);
+			str.append(",\"maxThrow\":").append(mMaxThrow);
+			str.append(",\"minThrow\":").append(mMinThrow);
+			str.append(",\"jugglers\":").append(mNumberOfJugglers);
+			str.append(",\"sync\":").append(mIsSync);
+			str.append(",\"status\":\"").append(status).append('"');
+			str.append(",\"results\":").append(mNumberOfResults);
+			str.append(",\"millis\":").append(mMillis);
+			if (mError != null) {
+				str.append(",\"error\":");
+				appendJsonString(str, mError);
+			}
+			str.append('}');
+			return str.toString();
+		}
+	}
+
+	public static void main(String[] args) {
+		SiteswapBatch batch;
+		try {
+			batch = new SiteswapBatch(args);
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.print(USAGE);
+			System.exit(2);
+			return;
+		}
+		OutputStream output = System.out;
+		OutputStream report = System.err;
+		try {
+			if (batch.mOutputFile != null)
+				output = new FileOutputStream(batch.mOutputFile);
+			if (batch.mReportFile != null)
+				report = new FileOutputStream(batch.mReportFile);
+			boolean isComplete = batch.run(output, report);
+			output.flush();
+			report.flush();
+			System.exit(isComplete ? 0 : 1);
+		}
+		catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(3);
+		}
+		catch (InterruptedException e) {
+			System.exit(3);
+		}
+	}
+}
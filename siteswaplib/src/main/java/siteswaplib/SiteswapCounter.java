@@ -0,0 +1,290 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts siteswaps without enumerating them. The count is based on the juggling
+ * states: a state is the set of future beats, on which an object lands. Each throw is a
+ * transition between two states and each siteswap of period n corresponds to a cycle
+ * of length n in the StateGraph. The number of cycles of length n is the trace of the
+ * n-th power of the transition matrix, which is calculated by dynamic programming.
+ * Siteswaps, which are rotations of each other or have a shorter period, are counted
+ * once, like in the SiteswapGenerator.
+ *
+ * Only asynchronous patterns are supported. Filters are supported, as long as they can
+ * be expressed by the allowed throw values: NumberFilters that exclude throws, and
+ * NumberFilters that require at least one throw of a given kind (inclusion-exclusion).
+ *
+ * The closed walks are counted for each start state, which costs up to S²·n·d
+ * operations for S states, period n and d throws per state. For short periods and
+ * large graphs the enumeration of the about d^n siteswaps is faster.
+ */
+public class SiteswapCounter {
+
+	// Maximum number of "at least one" filters (2^n terms for inclusion-exclusion)
+	static final private int MAX_NUMBER_OF_REQUIRED_THROWS = 8;
+	// Estimated cost of enumerating a siteswap relative to one step of the counting
+	static final private int ENUMERATION_COST = 100;
+
+	/**
+	 * Is asked once per start state of the state graph, whether the counting shall
+	 * be stopped, e.g. on a timeout.
+	 */
+	public interface Cancelable {
+		boolean isCanceled();
+	}
+
+	/**
+	 * Returns the number of siteswaps, that are generated with the given parameters or
+	 * -1, if the filters can not be counted without enumeration.
+	 */
+	static public long countSiteswaps(int periodLength, int maxThrow, int minThrow,
+									  int numberOfObjects, int numberOfJugglers,
+									  FilterList filterList) {
+		return countSiteswaps(periodLength, maxThrow, minThrow, numberOfObjects,
+				numberOfJugglers, filterList, false, null);
+	}
+
+	/**
+	 * Same as countSiteswaps without cancel check, but returns -1 also, if the
+	 * enumeration of the siteswaps is expected to be faster than the counting or
+	 * if the counting was canceled.
+	 */
+	static public long countSiteswaps(int periodLength, int maxThrow, int minThrow,
+									  int numberOfObjects, int numberOfJugglers,
+									  FilterList filterList, Cancelable cancelable) {
+		return countSiteswaps(periodLength, maxThrow, minThrow, numberOfObjects,
+				numberOfJugglers, filterList, true, cancelable);
+	}
+
+	static private long countSiteswaps(int periodLength, int maxThrow, int minThrow,
+									   int numberOfObjects, int numberOfJugglers,
+									   FilterList filterList, boolean isOnlyIfFaster,
+									   Cancelable cancelable) {
+		if (periodLength < 1 || maxThrow > 62 || numberOfObjects < 1)
+			return -1;
+		if (minThrow < 0)
+			minThrow = 0;
+		if (maxThrow < numberOfObjects || minThrow > numberOfObjects)
+			return 0;
+
+		boolean[] allowedThrows = new boolean[maxThrow + 1];
+		for (int value = minThrow; value <= maxThrow; ++value)
+			allowedThrows[value] = true;
+
+		List<boolean[]> requiredThrows = new ArrayList<boolean[]>();
+		if (filterList != null) {
+			Siteswap matcher = new Siteswap(new byte[0], numberOfJugglers);
+			for (Filter filter : filterList) {
+				if (!(filter instanceof NumberFilter))
+					return -1;
+				NumberFilter numberFilter = (NumberFilter) filter;
+				boolean[] matchingThrows = getMatchingThrows(numberFilter, maxThrow, matcher);
+				int threshold = numberFilter.getThresholdValue();
+				switch (numberFilter.getType()) {
+					case GREATER_EQUAL:
+						if (threshold <= 0)
+							break;
+						if (threshold > 1)
+							return -1;
+						requiredThrows.add(matchingThrows);
+						break;
+					case SMALLER_EQUAL:
+					case EQUAL:
+						if (threshold != 0)
+							return -1;
+						for (int value = 0; value <= maxThrow; ++value) {
+							if (matchingThrows[value])
+								allowedThrows[value] = false;
+						}
+						break;
+				}
+			}
+		}
+		if (requiredThrows.size() > MAX_NUMBER_OF_REQUIRED_THROWS)
+			return -1;
+		if (isOnlyIfFaster && !isFasterThanEnumeration(periodLength, numberOfObjects,
+				allowedThrows, 1 << requiredThrows.size()))
+			return -1;
+
+		// inclusion-exclusion: siteswaps that contain a throw of each required kind
+		long count = 0;
+		for (int subset = 0; subset < (1 << requiredThrows.size()); ++subset) {
+			boolean[] throwsOfSubset = allowedThrows.clone();
+			for (int i = 0; i < requiredThrows.size(); ++i) {
+				if ((subset & (1 << i)) == 0)
+					continue;
+				for (int value = 0; value <= maxThrow; ++value) {
+					if (requiredThrows.get(i)[value])
+						throwsOfSubset[value] = false;
+				}
+			}
+			long subsetCount = countPrimitiveCycles(periodLength, numberOfObjects, throwsOfSubset,
+					cancelable);
+			if (subsetCount < 0)
+				return -1;
+			if (Integer.bitCount(subset) % 2 == 0)
+				count += subsetCount;
+			else
+				count -= subsetCount;
+		}
+		return count;
+	}
+
+	static boolean[] getMatchingThrows(NumberFilter filter, int maxThrow, Siteswap matcher) {
+		boolean[] matchingThrows = new boolean[maxThrow + 1];
+		for (int filterValue : filter.getFilterValue().getValues(0)) {
+			for (int value = 0; value <= maxThrow; ++value) {
+				if (matcher.isPatternSingleValue((byte) filterValue, (byte) value))
+					matchingThrows[value] = true;
+			}
+		}
+		return matchingThrows;
+	}
+
+	/**
+	 * Returns true, if counting the closed walks for the given number of throw sets
+	 * is expected to be faster than enumerating the siteswaps. Both are estimated
+	 * from the average number of allowed throws per state, without creating the
+	 * state graph: the walks of one start state reach at most all states in each
+	 * step, the enumeration passes all walks of the period length, each costing
+	 * about ENUMERATION_COST operations of the counting.
+	 */
+	static private boolean isFasterThanEnumeration(int periodLength, int numberOfObjects,
+												   boolean[] allowedThrows, int numberOfThrowSets) {
+		int maxThrow = allowedThrows.length - 1;
+		double numberOfStates = StateGraph.getNumberOfStates(numberOfObjects, maxThrow);
+		int numberOfAllowedThrows = 0;
+		for (int value = 1; value <= maxThrow; ++value) {
+			if (allowedThrows[value])
+				numberOfAllowedThrows++;
+		}
+		// An object lands in the current beat with the probability objects / maxThrow.
+		// Then it can be thrown to each free beat, otherwise a 0 is thrown.
+		double landing = numberOfObjects / (double) maxThrow;
+		double throwsPerState = (1 - landing) * (allowedThrows[0] ? 1 : 0) +
+				landing * (maxThrow - numberOfObjects + 1) * numberOfAllowedThrows / maxThrow;
+		double countingCost = 0;
+		double walks = 1;
+		for (int step = 0; step < periodLength; ++step) {
+			countingCost += Math.min(walks, numberOfStates) * throwsPerState;
+			walks *= throwsPerState;
+		}
+		countingCost *= numberOfStates * numberOfThrowSets;
+		return countingCost < ENUMERATION_COST * walks;
+	}
+
+	/**
+	 * Returns the number of siteswaps with the given throws, that are not rotations of
+	 * each other and do not have a shorter period, or -1, if there are too many states
+	 * or the counting was canceled.
+	 */
+	static private long countPrimitiveCycles(int periodLength, int numberOfObjects,
+											 boolean[] allowedThrows, Cancelable cancelable) {
+		StateGraph graph = StateGraph.getInstance(numberOfObjects, allowedThrows.length - 1);
+		if (graph == null)
+			return -1;
+		int[][] transitions = graph.getSuccessors(allowedThrows);
+
+		// Moebius inversion: cycles(n) = sum over all divisors d of n of primitive(d)
+		long count = 0;
+		for (int divisor = 1; divisor <= periodLength; ++divisor) {
+			if (periodLength % divisor != 0)
+				continue;
+			int mu = moebius(periodLength / divisor);
+			if (mu == 0)
+				continue;
+			long cycles = countCycles(divisor, transitions, cancelable);
+			if (cycles < 0)
+				return -1;
+			count += mu * cycles;
+		}
+		return count / periodLength;
+	}
+
+	/**
+	 * Returns the number of closed walks of the given length in the state graph, i.e.
+	 * the trace of the transition matrix to the power of length, or -1, if the
+	 * counting was canceled. The walks of each start state are only propagated to the
+	 * states, that are reached, so that short walks in large graphs are cheap.
+	 */
+	static private long countCycles(int length, int[][] transitions, Cancelable cancelable) {
+		int numberOfStates = transitions.length;
+		long count = 0;
+		long[] walks = new long[numberOfStates];
+		long[] nextWalks = new long[numberOfStates];
+		int[] reached = new int[numberOfStates];
+		int[] nextReached = new int[numberOfStates];
+		// number of the last step, in which a state was reached, counted over all starts
+		int[] reachedInStep = new int[numberOfStates];
+		int stepNumber = 0;
+		for (int start = 0; start < numberOfStates; ++start) {
+			if (cancelable != null && cancelable.isCanceled())
+				return -1;
+			walks[start] = 1;
+			reached[0] = start;
+			int numberOfReached = 1;
+			for (int step = 1; step <= length; ++step) {
+				stepNumber++;
+				int numberOfNextReached = 0;
+				for (int i = 0; i < numberOfReached; ++i) {
+					int state = reached[i];
+					for (int successor : transitions[state]) {
+						if (reachedInStep[successor] != stepNumber) {
+							reachedInStep[successor] = stepNumber;
+							nextWalks[successor] = 0;
+							nextReached[numberOfNextReached++] = successor;
+						}
+						nextWalks[successor] += walks[state];
+					}
+				}
+				long[] tempWalks = walks;
+				walks = nextWalks;
+				nextWalks = tempWalks;
+				int[] tempReached = reached;
+				reached = nextReached;
+				nextReached = tempReached;
+				numberOfReached = numberOfNextReached;
+			}
+			for (int i = 0; i < numberOfReached; ++i) {
+				if (reached[i] == start)
+					count += walks[start];
+			}
+		}
+		return count;
+	}
+
+	static private int moebius(int n) {
+		int mu = 1;
+		for (int p = 2; p * p <= n; ++p) {
+			if (n % p != 0)
+				continue;
+			n /= p;
+			if (n % p == 0)
+				return 0;
+			mu = -mu;
+		}
+		if (n > 1)
+			mu = -mu;
+		return mu;
+	}
+}
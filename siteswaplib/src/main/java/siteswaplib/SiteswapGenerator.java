@@ -0,0 +1,1165 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SiteswapGenerator implements Serializable{
+
+	public enum Status {GENERATING, ALL_SITESWAPS_FOUND, RANDOM_SITESWAP_FOUND, MAX_RESULTS_REACHED, TIMEOUT_REACHED, MEMORY_FULL, CANCELLED};
+
+	/**
+	 * Is called regularly by the generating thread to report the progress.
+	 */
+	public interface ProgressListener {
+		void onProgress(Progress progress);
+	}
+
+	/**
+	 * Snapshot of the state of a running generation.
+	 */
+	public static class Progress {
+		private final long mNumberOfResults;
+		private final long mBacktrackingCount;
+		private final long mElapsedMillis;
+		private final double mSearchedFraction;
+
+		public Progress(long numberOfResults, long backtrackingCount, long elapsedMillis,
+						double searchedFraction) {
+			mNumberOfResults = numberOfResults;
+			mBacktrackingCount = backtrackingCount;
+			mElapsedMillis = elapsedMillis;
+			mSearchedFraction = searchedFraction;
+		}
+
+		public long getNumberOfResults() {
+			return mNumberOfResults;
+		}
+
+		/**
+		 * Returns the number of visited nodes of the search tree.
+		 */
+		public long getBacktrackingCount() {
+			return mBacktrackingCount;
+		}
+
+		public long getElapsedMillis() {
+			return mElapsedMillis;
+		}
+
+		/**
+		 * Returns the estimated fraction of the search tree, that was already searched,
+		 * or -1, if it can not be estimated (random generation). The estimation only
+		 * takes the first throw and the synchronous start position into account.
+		 */
+		public double getSearchedFraction() {
+			return mSearchedFraction;
+		}
+
+		public double getResultsPerSecond() {
+			if (mElapsedMillis == 0)
+				return 0;
+			return mNumberOfResults * 1000.0 / mElapsedMillis;
+		}
+
+		public double getNodesPerSecond() {
+			if (mElapsedMillis == 0)
+				return 0;
+			return mBacktrackingCount * 1000.0 / mElapsedMillis;
+		}
+	}
+
+	// Version of the binary format written by writeTo
+	public static final int BINARY_FORMAT_VERSION = 2;
+	// Maximum number of results, that a task of the parallel generation buffers,
+	// while it runs ahead of the task, whose results are passed to the sink.
+	static final private int PARALLEL_BUFFER_SIZE = 1024;
+
+	private LinkedList<Siteswap> mSiteswaps;
+	private transient SiteswapSink mSink;
+	private long mNumberOfResults = 0;
+	private FilterList mFilterList;
+	private int mPeriodLength;
+	private byte mMaxThrow;
+	private byte mMinThrow;
+	private byte mNumberOfObjects;
+	private int mNumberOfJugglers;
+	private int mMaxResults = 1000000000;
+	private long mStartTime = 0;
+    private int mTimeoutSeconds = 100;
+	private boolean mCalculationComplete = false;
+	// Each generation has its own cancel flag, so that tasks of a previous parallel
+	// generation stay canceled, when the next generation is started.
+	private volatile AtomicBoolean mIsCanceled;
+	private long mBacktrackingCount = 0; // Just for algorithm performance analysis
+	private int mNumberOfSynchronousHands = 1;
+	private boolean mIsRandomGeneration = false;
+	private Random mRandom = new Random();
+	private Siteswap mCompatibleSiteswap = null;
+	private boolean mIsParallelGeneration = false;
+	private boolean mIsStateGraphGeneration = false;
+	// Search tree nodes collected at mSplitDepth, which are processed in parallel.
+	// Only used during parallel generation.
+	private transient LinkedList<BacktrackingTask> mSplitNodes = null;
+	private int mSplitDepth = 0;
+	// Number and pattern filters are evaluated incrementally, when a throw is set,
+	// and the state is undone again on backtracking.
+	private transient FilterPlan mFilterPlan = null;
+	private transient FilterPlan.State mFilterState = null;
+	private transient ProgressListener mProgressListener = null;
+	private int mProgressIntervalMillis = 200;
+	private long mLastProgressTime = 0;
+	// Position, at which the last generation was interrupted
+	private GenerationCursor mCursor = null;
+	// Set while the backtracking descends along the path of the cursor, from which
+	// the generation is continued. Values lower than the throws of the cursor are
+	// skipped on this path, because they were already searched.
+	private transient GenerationCursor mResumeCursor = null;
+
+	public SiteswapGenerator(int length, int max, int min, int objects, int number_of_jugglers) {
+		this.mPeriodLength = length;
+		if (length < 1)
+			this.mPeriodLength = 1;
+		this.mMaxThrow = (byte) max;
+		this.mMinThrow = (byte) min;
+		this.mNumberOfObjects = (byte) objects;
+		if (objects < 1) {
+			this.mNumberOfObjects = 1;
+		}
+		mIsCanceled = new AtomicBoolean(false);
+		setNumberOfJugglers(number_of_jugglers);
+        mFilterList = new FilterList();
+        mFilterList.addDefaultFilters(number_of_jugglers, mNumberOfSynchronousHands);
+	}
+
+    public SiteswapGenerator(int length, int max, int min, int objects, int number_of_jugglers,
+                             FilterList filterList) {
+
+        this(length, max, min, objects, number_of_jugglers);
+        mFilterList = filterList;
+    }
+
+	/**
+	 * Creates a worker for parallel generation. The worker uses the parameters of the
+	 * given generator and shares the cancel flag and start time of the current
+	 * generation, but buffers its results and counts the backtracking separately.
+	 */
+	private SiteswapGenerator(SiteswapGenerator generator) {
+		mFilterList = generator.mFilterList;
+		mPeriodLength = generator.mPeriodLength;
+		mMaxThrow = generator.mMaxThrow;
+		mMinThrow = generator.mMinThrow;
+		mNumberOfObjects = generator.mNumberOfObjects;
+		mNumberOfJugglers = generator.mNumberOfJugglers;
+		mMaxResults = generator.mMaxResults;
+		mStartTime = generator.mStartTime;
+		mTimeoutSeconds = generator.mTimeoutSeconds;
+		mIsCanceled = generator.mIsCanceled;
+		mNumberOfSynchronousHands = generator.mNumberOfSynchronousHands;
+		mFilterPlan = generator.mFilterPlan;
+		mFilterState = new FilterPlan.State(generator.mFilterState);
+		if (generator.mSink instanceof CountingSink)
+			mSink = generator.mSink;
+		else
+			mSink = new TaskSink();
+	}
+
+	public LinkedList<Filter> getFilterList() {
+		return mFilterList;
+	}
+
+	public void setFilterList(FilterList filterList) {
+		this.mFilterList = filterList;
+	}
+
+	public Status generateSiteswaps() {
+		LinkedList<Siteswap> siteswaps = new LinkedList<Siteswap>();
+		Status status = generateSiteswaps(new SiteswapListSink(siteswaps));
+		mSiteswaps = siteswaps;
+		return status;
+	}
+
+	/**
+	 * Generates the siteswaps and passes each result to the sink as soon as it is
+	 * found. The results are not stored by the generator, i.e. getSiteswaps()
+	 * returns null afterwards.
+	 */
+	public Status generateSiteswaps(SiteswapSink sink) {
+		return generateSiteswaps(sink, null);
+	}
+
+	/**
+	 * Continues an interrupted generation at the cursor, which was returned by
+	 * getCursor(), and passes the siteswaps after the cursor to the sink. The
+	 * parameters and filters must be the same as in the interrupted generation.
+	 * The maximum number of results and the timeout apply to the continued
+	 * generation only. Random generation does not support cursors.
+	 */
+	public Status generateSiteswaps(SiteswapSink sink, GenerationCursor cursor) {
+		mIsCanceled = new AtomicBoolean(false);
+		mCursor = null;
+		mResumeCursor = mIsRandomGeneration ? null : cursor;
+		mCalculationComplete = false;
+		mBacktrackingCount = 0;
+		mNumberOfResults = 0;
+		mSiteswaps = null;
+		mSink = sink;
+        mStartTime = System.currentTimeMillis();
+		mLastProgressTime = mStartTime;
+		mFilterPlan = new FilterPlan(mFilterList, mPeriodLength, mMaxThrow,
+				mNumberOfJugglers, mNumberOfSynchronousHands);
+		mFilterState = mFilterPlan.createState();
+
+		if (mIsStateGraphGeneration && !mIsRandomGeneration && mNumberOfSynchronousHands == 1 &&
+				mResumeCursor == null) {
+			StateGraph graph = StateGraph.getInstance(mNumberOfObjects, mMaxThrow);
+			if (graph != null) {
+				Status status = generateSiteswapsFromStateGraph(graph);
+				mCalculationComplete = true;
+				mSink = null;
+				if (mProgressListener != null)
+					reportProgress(System.currentTimeMillis(), 1);
+				return status;
+			}
+		}
+
+		if (mIsParallelGeneration && !mIsRandomGeneration && mPeriodLength > 1) {
+			Status status = generateSiteswapsParallel();
+			mCalculationComplete = true;
+			mSink = null;
+			if (mProgressListener != null)
+				reportProgress(System.currentTimeMillis(), 1);
+			return status;
+		}
+
+		if (mIsRandomGeneration) {
+			SiteswapSampler sampler = new SiteswapSampler(mPeriodLength, mMaxThrow, mMinThrow,
+					mNumberOfObjects, mNumberOfJugglers, mNumberOfSynchronousHands, mFilterList, mRandom);
+			if (sampler.isSupported()) {
+				Status status = sampleSiteswaps(sampler);
+				mCalculationComplete = true;
+				mSink = null;
+				if (mProgressListener != null)
+					reportProgress(System.currentTimeMillis(), -1);
+				return status;
+			}
+		}
+
+		byte[] siteswapArray = new byte[mPeriodLength];
+		Arrays.fill(siteswapArray, Siteswap.FREE);
+		Siteswap siteswap;
+		Status status = Status.GENERATING;
+
+		int firstSynchronousStartPosition = (mResumeCursor != null) ?
+				mResumeCursor.getSynchronousStartPosition() : 0;
+		for (int i = firstSynchronousStartPosition; i < mNumberOfSynchronousHands; ++i) {
+			siteswap = new Siteswap(siteswapArray, mNumberOfJugglers);
+			siteswap.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+			siteswap.setSynchronousStartPosition(i);
+			status = backtracking(siteswap, new LandingSlots(mPeriodLength, mMaxThrow), 0, 0);
+			mResumeCursor = null;
+			if (status != Status.GENERATING || mIsRandomGeneration) {
+				break;
+			}
+            status = Status.ALL_SITESWAPS_FOUND;
+		}
+
+		if (mIsRandomGeneration) {
+			while (status == Status.GENERATING || status == Status.RANDOM_SITESWAP_FOUND) {
+				Arrays.fill(siteswapArray, Siteswap.FREE);
+				// a found siteswap returns without undoing the filter counts
+				mFilterPlan.reset(mFilterState);
+				siteswap = new Siteswap(siteswapArray, mNumberOfJugglers);
+				siteswap.setNumberOfSynchronousHands((mNumberOfSynchronousHands));
+				siteswap.setSynchronousStartPosition((mRandom.nextInt(mNumberOfSynchronousHands)));
+				status = backtracking(siteswap, new LandingSlots(mPeriodLength, mMaxThrow), 0, 0);
+			}
+		}
+		mCalculationComplete = true;
+		mSink = null;
+		if (mProgressListener != null)
+			reportProgress(System.currentTimeMillis(), mIsRandomGeneration ? -1 : 1);
+		return status;
+	}
+
+	/**
+	 * Passes uniformly distributed random siteswaps to the sink, until the maximum
+	 * number of results or the timeout is reached. The same siteswap may be passed
+	 * several times. If there is no siteswap at all, the generation is complete.
+	 */
+	private Status sampleSiteswaps(SiteswapSampler sampler) {
+		if (sampler.isEmpty())
+			return Status.ALL_SITESWAPS_FOUND;
+		while (true) {
+			mBacktrackingCount++;
+			long currentTime = System.currentTimeMillis();
+			if (currentTime - mStartTime > mTimeoutSeconds * 1000)
+				return Status.TIMEOUT_REACHED;
+			if (mIsCanceled.get())
+				return Status.CANCELLED;
+			if (mProgressListener != null && currentTime - mLastProgressTime >= mProgressIntervalMillis)
+				reportProgress(currentTime, -1);
+
+			Siteswap siteswap = sampler.sample();
+			if (siteswap == null)
+				continue;
+			mNumberOfResults++;
+			if (!mSink.accept(siteswap.getData(), siteswap.getSynchronousStartPosition()))
+				return getRefusedStatus();
+			if(Runtime.getRuntime().maxMemory()-(Runtime.getRuntime().totalMemory() -
+					Runtime.getRuntime().freeMemory()) < 1000)
+				return Status.MEMORY_FULL;
+			if (mNumberOfResults >= mMaxResults)
+				return Status.MAX_RESULTS_REACHED;
+		}
+	}
+
+	/**
+	 * Enumerates the siteswaps as cycles of the state graph. The filters are applied
+	 * to the complete siteswaps only.
+	 */
+	private Status generateSiteswapsFromStateGraph(StateGraph graph) {
+		boolean[] allowedThrows = new boolean[mMaxThrow + 1];
+		for (int value = Math.max(mMinThrow, 0); value <= mMaxThrow; ++value)
+			allowedThrows[value] = true;
+		StateGraphSink sink = new StateGraphSink();
+		graph.enumerateCycles(mPeriodLength, allowedThrows, sink);
+		return sink.mStatus;
+	}
+
+	/**
+	 * Counts the siteswaps without creating Siteswap objects. The number of siteswaps
+	 * is returned by getNumberOfGeneratedSiteswaps() afterwards. For asynchronous
+	 * patterns with filters, that only restrict the throw values, the number is
+	 * calculated by the SiteswapCounter without enumerating the siteswaps, if this is
+	 * expected to be faster. Random generation is ignored.
+	 */
+	public Status countSiteswaps() {
+		if (mNumberOfSynchronousHands == 1) {
+			final AtomicBoolean isCanceled = new AtomicBoolean(false);
+			mIsCanceled = isCanceled;
+			mStartTime = System.currentTimeMillis();
+			long count = SiteswapCounter.countSiteswaps(mPeriodLength, mMaxThrow, mMinThrow,
+					mNumberOfObjects, mNumberOfJugglers, mFilterList, new SiteswapCounter.Cancelable() {
+						@Override
+						public boolean isCanceled() {
+							return isCanceled.get() || isTimeoutReached();
+						}
+					});
+			if (count < 0 && (isCanceled.get() || isTimeoutReached())) {
+				mSiteswaps = null;
+				mNumberOfResults = 0;
+				mCalculationComplete = true;
+				return isCanceled.get() ? Status.CANCELLED : Status.TIMEOUT_REACHED;
+			}
+			if (count >= 0) {
+				mSiteswaps = null;
+				mBacktrackingCount = 0;
+				mCalculationComplete = true;
+				if (count >= mMaxResults) {
+					mNumberOfResults = mMaxResults;
+					return Status.MAX_RESULTS_REACHED;
+				}
+				mNumberOfResults = count;
+				return Status.ALL_SITESWAPS_FOUND;
+			}
+		}
+
+		boolean isRandomGeneration = mIsRandomGeneration;
+		mIsRandomGeneration = false;
+		Status status = generateSiteswaps(new CountingSink());
+		mIsRandomGeneration = isRandomGeneration;
+		return status;
+	}
+
+	private boolean isTimeoutReached() {
+		return System.currentTimeMillis() - mStartTime > mTimeoutSeconds * 1000;
+	}
+
+	/**
+	 * Splits the search tree at the first throw positions (and at the synchronous start
+	 * positions) into tasks. The task, whose results are currently passed to the sink,
+	 * is run by the calling thread and passes its results directly. The following tasks
+	 * run ahead in the common ForkJoinPool, until they have buffered
+	 * PARALLEL_BUFFER_SIZE results, and are continued from there by the calling thread,
+	 * when it is their turn. Thus the results are passed in the same order as produced
+	 * by the serial generation and only a bounded number of results is kept.
+	 */
+	private Status generateSiteswapsParallel() {
+		byte[] siteswapArray = new byte[mPeriodLength];
+		Arrays.fill(siteswapArray, Siteswap.FREE);
+		Status status = Status.ALL_SITESWAPS_FOUND;
+
+		// Collect all search tree nodes at the split depth. The backtracking
+		// returns at these nodes instead of descending further.
+		mSplitDepth = (mPeriodLength > 2) ? 2 : 1;
+		mSplitNodes = new LinkedList<BacktrackingTask>();
+		int firstSynchronousStartPosition = (mResumeCursor != null) ?
+				mResumeCursor.getSynchronousStartPosition() : 0;
+		for (int i = firstSynchronousStartPosition; i < mNumberOfSynchronousHands; ++i) {
+			Siteswap siteswap = new Siteswap(siteswapArray, mNumberOfJugglers);
+			siteswap.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+			siteswap.setSynchronousStartPosition(i);
+			status = backtracking(siteswap, new LandingSlots(mPeriodLength, mMaxThrow), 0, 0);
+			mResumeCursor = null;
+			if (status != Status.GENERATING)
+				break;
+			status = Status.ALL_SITESWAPS_FOUND;
+		}
+		ArrayList<BacktrackingTask> tasks = new ArrayList<BacktrackingTask>(mSplitNodes);
+		mSplitNodes = null;
+		if (status != Status.ALL_SITESWAPS_FOUND)
+			return status;
+
+		int runAhead = ForkJoinPool.getCommonPoolParallelism();
+		int submittedTasks = 1;
+		for (int i = 0; i < tasks.size(); ++i) {
+			for (; submittedTasks < tasks.size() && submittedTasks <= i + runAhead; ++submittedTasks)
+				ForkJoinPool.commonPool().execute(tasks.get(submittedTasks));
+			Status taskStatus = passTaskResults(tasks.get(i), i / (double) tasks.size());
+			if (taskStatus != Status.GENERATING) {
+				// stop the tasks, that run ahead
+				cancelGeneration();
+				return taskStatus;
+			}
+			long currentTime = System.currentTimeMillis();
+			if (mProgressListener != null && currentTime - mLastProgressTime >= mProgressIntervalMillis)
+				reportProgress(currentTime, (i + 1) / (double) tasks.size());
+		}
+		return status;
+	}
+
+	/**
+	 * Passes the results of a task to the sink. If the task did not yet start in the
+	 * pool, it is run by the calling thread. Otherwise the buffered results are passed
+	 * and the task is continued, if it stopped on a full buffer.
+	 */
+	private Status passTaskResults(BacktrackingTask task, final double searchedFraction) {
+		SiteswapGenerator worker = task.mWorker;
+		if (!task.claim()) {
+			Status status = task.join();
+			mBacktrackingCount += worker.mBacktrackingCount;
+			worker.mBacktrackingCount = 0;
+			if (mSink instanceof CountingSink) {
+				mNumberOfResults += worker.mNumberOfResults;
+				if (mNumberOfResults >= mMaxResults) {
+					// the position of the last counted siteswap is not known
+					mNumberOfResults = mMaxResults;
+					return Status.MAX_RESULTS_REACHED;
+				}
+				mCursor = worker.mCursor;
+				return status;
+			}
+			TaskSink buffer = (TaskSink) worker.mSink;
+			for (byte[] record : buffer.mRecords) {
+				Siteswap siteswap = new Siteswap(Arrays.copyOf(record, mPeriodLength), mNumberOfJugglers);
+				siteswap.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+				siteswap.setSynchronousStartPosition(record[mPeriodLength]);
+				mNumberOfResults++;
+				if (!mSink.accept(siteswap.getData(), siteswap.getSynchronousStartPosition())) {
+					mCursor = createCursor(siteswap, mPeriodLength, false);
+					return getRefusedStatus();
+				}
+				if (mNumberOfResults >= mMaxResults) {
+					mCursor = createCursor(siteswap, mPeriodLength, true);
+					return Status.MAX_RESULTS_REACHED;
+				}
+			}
+			buffer.mRecords.clear();
+			if (!buffer.mIsFull) {
+				mCursor = worker.mCursor;
+				return status;
+			}
+			// continue at the first siteswap, that did not fit into the buffer
+			worker.mResumeCursor = worker.mCursor;
+		}
+
+		worker.mSink = mSink;
+		worker.mCursor = null;
+		worker.mNumberOfResults = 0;
+		worker.mMaxResults = mMaxResults - (int) mNumberOfResults;
+		if (mProgressListener != null) {
+			worker.mProgressIntervalMillis = mProgressIntervalMillis;
+			worker.mLastProgressTime = mLastProgressTime;
+			worker.mProgressListener = new ProgressListener() {
+				@Override
+				public void onProgress(Progress progress) {
+					mLastProgressTime = System.currentTimeMillis();
+					mProgressListener.onProgress(new Progress(
+							mNumberOfResults + progress.getNumberOfResults(),
+							mBacktrackingCount + progress.getBacktrackingCount(),
+							progress.getElapsedMillis(), searchedFraction));
+				}
+			};
+		}
+		Status status = task.run();
+		mNumberOfResults += worker.mNumberOfResults;
+		mBacktrackingCount += worker.mBacktrackingCount;
+		mCursor = worker.mCursor;
+		return status;
+	}
+
+	/**
+	 * Returns the status of the generation, after the sink refused a siteswap.
+	 */
+	private Status getRefusedStatus() {
+		if (mSink instanceof SiteswapSink.Bounded && ((SiteswapSink.Bounded) mSink).isFull())
+			return Status.MEMORY_FULL;
+		return Status.CANCELLED;
+	}
+
+	public void setNumberOfJugglers(int numberOfJugglers) {
+		this.mNumberOfJugglers = numberOfJugglers;
+		if (numberOfJugglers < 1)
+			this.mNumberOfJugglers = 1;
+	}
+
+	public void setPeriodLength(int periodLength) {
+		this.mPeriodLength = periodLength;
+	}
+
+	public void setMaxThrow(int maxThrow) {
+		this.mMaxThrow = (byte) maxThrow;
+	}
+
+	public void setMinThrow(int minThrow) {
+		this.mMinThrow = (byte) minThrow;
+	}
+
+	public void setNumberOfObjects(int numberOfObjects) {
+		this.mNumberOfObjects = (byte) numberOfObjects;
+	}
+
+	public void setMaxResults(int maxResults) {
+		this.mMaxResults = maxResults;
+	}
+
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.mTimeoutSeconds = timeoutSeconds;
+    }
+
+	public void setSyncPattern(boolean isSyncPattern) {
+		if (isSyncPattern)
+            mNumberOfSynchronousHands = getNumberOfJugglers();
+		else
+			mNumberOfSynchronousHands = 1;
+	}
+
+	/**
+	 * Enables the generation of random siteswaps. If the state graph is small enough,
+	 * the siteswaps are drawn uniformly by the SiteswapSampler, otherwise by a
+	 * randomized backtracking.
+	 */
+    public void setRandomGeneration(boolean isRandomGeneration) {
+		mIsRandomGeneration = isRandomGeneration;
+	}
+
+	public boolean isRandomGeneration() {
+		return mIsRandomGeneration;
+	}
+
+	/**
+	 * Sets the seed of the random generation, so that the same siteswaps are
+	 * generated again.
+	 */
+	public void setRandomSeed(long seed) {
+		mRandom = new Random(seed);
+	}
+
+	/**
+	 * Enables the generation on all cores using the common ForkJoinPool. The
+	 * generated siteswaps are the same and in the same order as in serial mode.
+	 * Random generation is always done serially.
+	 */
+	public void setParallelGeneration(boolean isParallelGeneration) {
+		mIsParallelGeneration = isParallelGeneration;
+	}
+
+	public boolean isParallelGeneration() {
+		return mIsParallelGeneration;
+	}
+
+	/**
+	 * Enumerates asynchronous siteswaps as cycles of the StateGraph instead of
+	 * backtracking. The same siteswaps are generated, but in a different order, and
+	 * an interrupted generation can not be continued. Synchronous and random
+	 * generation and too large state graphs always use the backtracking. With the
+	 * default filters, the enumeration is not faster than the backtracking (see
+	 * GeneratorBenchmark), so it is disabled by default.
+	 */
+	public void setStateGraphGeneration(boolean isStateGraphGeneration) {
+		mIsStateGraphGeneration = isStateGraphGeneration;
+	}
+
+	public boolean isStateGraphGeneration() {
+		return mIsStateGraphGeneration;
+	}
+
+	public void setCompatibleSiteswap(Siteswap siteswap) {
+		mCompatibleSiteswap = siteswap;
+	}
+
+	public Siteswap getCompatibleSiteswap() {
+		return mCompatibleSiteswap;
+	}
+
+	/**
+	 * Sets a listener, which is called by the generating thread at most every
+	 * intervalMillis milliseconds and once at the end of the generation. The
+	 * listener may consume the results, that were passed to the sink so far.
+	 */
+	public void setProgressListener(ProgressListener listener, int intervalMillis) {
+		mProgressListener = listener;
+		mProgressIntervalMillis = intervalMillis;
+	}
+
+	private void reportProgress(long currentTime, double searchedFraction) {
+		mLastProgressTime = currentTime;
+		mProgressListener.onProgress(new Progress(mNumberOfResults, mBacktrackingCount,
+				currentTime - mStartTime, searchedFraction));
+	}
+
+	/**
+	 * Estimates the searched fraction of the search tree from the first throw of the
+	 * siteswap, that is currently generated. Higher first throws are tried later.
+	 */
+	private double getSearchedFraction(Siteswap siteswap) {
+		if (mIsRandomGeneration)
+			return -1;
+		int min = mNumberOfObjects;
+		int max = (mPeriodLength == 1) ? mNumberOfObjects : mMaxThrow;
+		double fraction = 0;
+		if (siteswap.at(0) != Siteswap.FREE && max >= min)
+			fraction = (siteswap.at(0) - min) / (double) (max - min + 1);
+		return (siteswap.getSynchronousStartPosition() + fraction) / mNumberOfSynchronousHands;
+	}
+
+	/**
+	 * Returns the siteswaps of the last generation or null, if they were passed to a
+	 * SiteswapSink.
+	 */
+	public LinkedList<Siteswap> getSiteswaps() {
+		return mSiteswaps;
+	}
+
+	public long getNumberOfGeneratedSiteswaps() {
+		return mNumberOfResults;
+	}
+
+	public int getPeriodLength() {
+		return mPeriodLength;
+	}
+
+	public byte getMaxThrow() {
+		return mMaxThrow;
+	}
+
+	public byte getMinThrow() {
+		return mMinThrow;
+	}
+
+	public byte getNumberOfObjects() {
+		return mNumberOfObjects;
+	}
+
+	public int getNumberOfJugglers() {
+		return mNumberOfJugglers;
+	}
+
+	public int getNumberOfSynchronousHands() {
+		return mNumberOfSynchronousHands;
+	}
+
+	public int getMaxResults() {
+		return mMaxResults;
+	}
+
+    public int getTimeoutSeconds() {
+        return mTimeoutSeconds;
+    }
+
+	public long getBacktrackingCount() {
+		return mBacktrackingCount;
+	}
+
+    public boolean isCalculationComplete() {
+		return mCalculationComplete;
+	}
+
+	public void cancelGeneration() {
+		mIsCanceled.set(true);
+	}
+
+	/**
+	 * Returns the position, at which the last generation was interrupted by a
+	 * timeout, cancellation or the maximum number of results, or null, if the
+	 * generation was complete or the position is not known (random generation,
+	 * counting in parallel). The generation can be continued with
+	 * generateSiteswaps(sink, cursor).
+	 */
+	public GenerationCursor getCursor() {
+		return mCursor;
+	}
+
+	private GenerationCursor createCursor(Siteswap siteswap, int currentIndex, boolean isProcessed) {
+		if (mIsRandomGeneration)
+			return null;
+		if (mResumeCursor != null) {
+			// interrupted before the position of the cursor, from which the
+			// generation is continued, was reached
+			return mResumeCursor;
+		}
+		return new GenerationCursor(siteswap.getSynchronousStartPosition(),
+				Arrays.copyOf(siteswap.getData(), currentIndex), isProcessed);
+	}
+
+	/**
+	 * Returns the generator parameters, the filters and the results of the last
+	 * generation and the cursor of an interrupted generation in the binary format
+	 * read by fromByteArray.
+	 */
+	public byte[] toByteArray() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			writeTo(new DataOutputStream(bytes));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public static SiteswapGenerator fromByteArray(byte[] bytes) throws IOException {
+		if (bytes == null)
+			throw new IOException("No generator data");
+		return readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+	}
+
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(BINARY_FORMAT_VERSION);
+		out.writeInt(mPeriodLength);
+		out.writeByte(mMaxThrow);
+		out.writeByte(mMinThrow);
+		out.writeByte(mNumberOfObjects);
+		out.writeInt(mNumberOfJugglers);
+		out.writeInt(mMaxResults);
+		out.writeInt(mTimeoutSeconds);
+		out.writeInt(mNumberOfSynchronousHands);
+		out.writeBoolean(mIsRandomGeneration);
+		out.writeBoolean(mIsParallelGeneration);
+		out.writeBoolean(mCalculationComplete);
+		out.writeBoolean(mFilterList != null);
+		if (mFilterList != null)
+			mFilterList.writeTo(out);
+		out.writeBoolean(mCompatibleSiteswap != null);
+		if (mCompatibleSiteswap != null)
+			mCompatibleSiteswap.writeTo(out);
+		out.writeInt(mSiteswaps == null ? -1 : mSiteswaps.size());
+		if (mSiteswaps != null) {
+			for (Siteswap siteswap : mSiteswaps)
+				siteswap.writeTo(out);
+		}
+		out.writeBoolean(mCursor != null);
+		if (mCursor != null)
+			mCursor.writeTo(out);
+	}
+
+	public static SiteswapGenerator readFrom(DataInput in) throws IOException {
+		int version = in.readInt();
+		if (version < 1 || version > BINARY_FORMAT_VERSION)
+			throw new IOException("Unsupported generator format version " + version);
+		int periodLength = in.readInt();
+		byte maxThrow = in.readByte();
+		byte minThrow = in.readByte();
+		byte numberOfObjects = in.readByte();
+		int numberOfJugglers = in.readInt();
+		SiteswapGenerator generator = new SiteswapGenerator(periodLength, maxThrow,
+				minThrow, numberOfObjects, numberOfJugglers);
+		generator.mMaxResults = in.readInt();
+		generator.mTimeoutSeconds = in.readInt();
+		generator.mNumberOfSynchronousHands = in.readInt();
+		generator.mIsRandomGeneration = in.readBoolean();
+		generator.mIsParallelGeneration = in.readBoolean();
+		generator.mCalculationComplete = in.readBoolean();
+		generator.mFilterList = in.readBoolean() ? new FilterList().readFrom(in) : null;
+		generator.mCompatibleSiteswap = in.readBoolean() ? Siteswap.readFrom(in) : null;
+		int numberOfSiteswaps = in.readInt();
+		if (numberOfSiteswaps >= 0) {
+			generator.mSiteswaps = new LinkedList<Siteswap>();
+			for (int i = 0; i < numberOfSiteswaps; ++i)
+				generator.mSiteswaps.add(Siteswap.readFrom(in));
+			generator.mNumberOfResults = numberOfSiteswaps;
+		}
+		if (version >= 2 && in.readBoolean())
+			generator.mCursor = GenerationCursor.readFrom(in);
+		return generator;
+	}
+
+	/**
+	 * Returns false, if an timeout occured, the maximum number of siteswaps is
+	 * reached or some error occurred. The siteswap calculation is then recursively
+	 * aborted. Returns true on normal, to indicate, that the siteswap search
+	 * shall be continued.
+	 * */
+	private Status backtracking(Siteswap siteswap, LandingSlots landingSlots,
+								 int currentIndex, int uniqueRepresentationIndex) {
+
+		if (mResumeCursor != null && currentIndex == mResumeCursor.getDepth()) {
+			// Node of the cursor reached: continue normally
+			boolean isProcessed = mResumeCursor.isProcessed();
+			mResumeCursor = null;
+			if (isProcessed)
+				return Status.GENERATING;
+		}
+
+		if (mSplitNodes != null && currentIndex == mSplitDepth) {
+			SiteswapGenerator worker = new SiteswapGenerator(this);
+			// the worker of the node on the path of the cursor continues at the cursor
+			worker.mResumeCursor = mResumeCursor;
+			mResumeCursor = null;
+			mSplitNodes.add(new BacktrackingTask(worker, siteswap,
+					landingSlots, currentIndex, uniqueRepresentationIndex));
+			return Status.GENERATING;
+		}
+
+		mBacktrackingCount++;
+		if (mBacktrackingCount % 1000 == 0) {
+			long currentTime = System.currentTimeMillis();
+			if (currentTime - mStartTime > mTimeoutSeconds * 1000) {
+				mCursor = createCursor(siteswap, currentIndex, false);
+				return Status.TIMEOUT_REACHED;
+			}
+			if (mProgressListener != null && currentTime - mLastProgressTime >= mProgressIntervalMillis)
+				reportProgress(currentTime, getSearchedFraction(siteswap));
+		}
+
+		if (mIsCanceled.get()) {
+			mCursor = createCursor(siteswap, currentIndex, false);
+			return Status.CANCELLED;
+		}
+
+		if (currentIndex == mPeriodLength) {
+
+			if (uniqueRepresentationIndex != 0) {
+				// Representation is not unique or siteswap has shorter period.
+				// Go a step back and continue searching...
+				return Status.GENERATING;
+			}
+			if (mFilterPlan.isFulfilled(mFilterState, siteswap) && (mIsRandomGeneration ||
+					!isFoundAtOtherStartPosition(siteswap, mFilterList))) {
+				mNumberOfResults++;
+				if (!mSink.accept(siteswap.getData(), siteswap.getSynchronousStartPosition())) {
+					mCursor = createCursor(siteswap, currentIndex, false);
+					return getRefusedStatus();
+				}
+				if(Runtime.getRuntime().maxMemory()-(Runtime.getRuntime().totalMemory() -
+						Runtime.getRuntime().freeMemory()) < 1000) {
+					mCursor = createCursor(siteswap, currentIndex, true);
+					return Status.MEMORY_FULL;
+				}
+				if (mNumberOfResults >= mMaxResults) {
+					mCursor = createCursor(siteswap, currentIndex, true);
+					return Status.MAX_RESULTS_REACHED;
+				}
+				if (mIsRandomGeneration)
+					return Status.RANDOM_SITESWAP_FOUND;
+			}
+			// A filter did not match. Go a step back and continue searching...
+			return Status.GENERATING;
+		}
+		else { // Not last index
+
+			if (currentIndex != 0) {
+				if (!mFilterPlan.isPartlyFulfilled(mFilterState, siteswap, currentIndex - 1)) {
+					// Go a step back and continue searching...
+					return Status.GENERATING;
+				}
+			}
+		}
+
+		byte[] siteswapData = siteswap.getData();
+		int min, max, uniqeMax;
+
+		if (currentIndex == 0) {
+			min = mNumberOfObjects;
+			if (mIsRandomGeneration)
+				min = mMaxThrow;
+			max = mMaxThrow;
+			uniqeMax = mMaxThrow + 1; // same value as max would result in wrong index calculation
+			if (mPeriodLength == 1) {
+				max = mNumberOfObjects;
+			}
+		}
+		else {
+
+			int partialSum = landingSlots.getSumOfThrows();
+			int sum = mPeriodLength * mNumberOfObjects;
+
+			// calculate minimum throw. The minimum throw must be hight enougth, that
+			// the overall sum can be numberOfOjects * periodLength
+			int minDeterminedByAverage = sum - partialSum - landingSlots.getMaxSumToGenerate(currentIndex + 1, mMaxThrow);
+			min = (minDeterminedByAverage > mMinThrow) ? minDeterminedByAverage : mMinThrow;
+
+			// calculate max throw. The maximum throw can not be higher, than required
+			// by the unique representation property. Additionally it must be possible,
+			// that the overall sum is numberOfOjects * periodLength
+			uniqeMax = siteswapData[uniqueRepresentationIndex];
+			int maxDeterminedByAverage = sum - partialSum - landingSlots.getMinSumToGenerate(currentIndex + 1, mMinThrow, mMaxThrow);
+			max = (maxDeterminedByAverage < uniqeMax) ? maxDeterminedByAverage : uniqeMax;
+		}
+
+		int synchronousPosition = siteswap.getSynchronousPosition(currentIndex);
+		int resumeValue = Integer.MIN_VALUE;
+		if (mResumeCursor != null) {
+			resumeValue = mResumeCursor.getThrow(currentIndex);
+			min = Math.max(min, resumeValue);
+		}
+		for (int value = min; value <= max; ++value) {
+
+			if (value != resumeValue)
+				mResumeCursor = null;
+
+			if (mIsRandomGeneration) {
+				value = mRandom.nextInt(max - min + 1) + min;
+			}
+
+			if (!landingSlots.isFree(currentIndex + value))
+				continue;
+
+			siteswapData[currentIndex] = (byte) value;
+			landingSlots.occupy(currentIndex, value);
+			mFilterPlan.addThrow(mFilterState, currentIndex, synchronousPosition, value);
+			int nextUniqueIndex = (value == uniqeMax) ? uniqueRepresentationIndex + 1 : 0;
+			Status status = backtracking(siteswap, landingSlots, currentIndex + 1, nextUniqueIndex);
+			if (status != Status.GENERATING)
+				return status;
+			mFilterPlan.removeThrow(mFilterState, currentIndex, synchronousPosition, value);
+			landingSlots.release(currentIndex, value);
+		}
+
+		siteswapData[currentIndex] = Siteswap.FREE; // reset value for backtracking
+		mResumeCursor = null;
+
+		return Status.GENERATING;
+
+	}
+
+	/**
+	 * Returns true, if the synchronous siteswap is the same pattern as the siteswap with
+	 * a smaller synchronous start position, as treated by the SiteswapHashSet, and that
+	 * siteswap fulfills the filters as well. If the period and the number of synchronous
+	 * hands have a common divisor, the start positions, which differ by it, are reached
+	 * by rotating the siteswap by whole periods. The siteswap is then found once for
+	 * each of these start positions and only the first one is passed on. The siteswap
+	 * must be in its unique representation.
+	 */
+	static boolean isFoundAtOtherStartPosition(Siteswap siteswap, FilterList filterList) {
+		int numberOfSynchronousHands = siteswap.getNumberOfSynchronousHands();
+		if (numberOfSynchronousHands == 1)
+			return false;
+		int startPosition = siteswap.getSynchronousStartPosition();
+		int canonicalStartPosition = Siteswap.getCanonicalSynchronousStartPosition(
+				siteswap.getData(), 0, numberOfSynchronousHands, startPosition);
+		if (canonicalStartPosition == startPosition)
+			return false;
+		Siteswap other = new Siteswap(siteswap);
+		other.setSynchronousStartPosition(canonicalStartPosition);
+		if (filterList != null) {
+			for (Filter filter : filterList) {
+				if (!filter.isFulfilled(other))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns an iterator, which generates the siteswaps in a background thread. The
+	 * generation is blocked, until the consumer requests the next results. The generator
+	 * must not be used otherwise, until the iterator is exhausted or closed.
+	 */
+	public SiteswapIterator iterator() {
+		return new SiteswapIterator(this);
+	}
+
+	/**
+	 * Collects the generated siteswaps in a list.
+	 */
+	private class SiteswapListSink implements SiteswapSink {
+		private final LinkedList<Siteswap> mList;
+
+		SiteswapListSink(LinkedList<Siteswap> list) {
+			mList = list;
+		}
+
+		@Override
+		public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+			Siteswap result = new Siteswap(siteswap, mNumberOfJugglers);
+			result.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+			result.setSynchronousStartPosition(synchronousStartPosition);
+			mList.add(result);
+			return true;
+		}
+	}
+
+	/**
+	 * Applies the filters to the cycles of the state graph and passes the results to
+	 * the sink of the generator. Stops the enumeration, when the generation ends.
+	 */
+	private class StateGraphSink implements SiteswapSink.Cancelable {
+		Status mStatus = Status.ALL_SITESWAPS_FOUND;
+
+		@Override
+		public boolean isCanceled() {
+			long currentTime = System.currentTimeMillis();
+			if (currentTime - mStartTime > mTimeoutSeconds * 1000) {
+				mStatus = Status.TIMEOUT_REACHED;
+				return true;
+			}
+			if (mProgressListener != null && currentTime - mLastProgressTime >= mProgressIntervalMillis)
+				reportProgress(currentTime, -1);
+			if (mIsCanceled.get()) {
+				mStatus = Status.CANCELLED;
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+			mBacktrackingCount++;
+			if (mBacktrackingCount % 1000 == 0 && isCanceled())
+				return false;
+			if (mIsCanceled.get()) {
+				mStatus = Status.CANCELLED;
+				return false;
+			}
+
+			Siteswap result = new Siteswap(siteswap, mNumberOfJugglers);
+			if (mFilterList != null) {
+				for (Filter filter : mFilterList) {
+					if (!filter.isFulfilled(result))
+						return true;
+				}
+			}
+			mNumberOfResults++;
+			if (!mSink.accept(siteswap, synchronousStartPosition)) {
+				mStatus = getRefusedStatus();
+				return false;
+			}
+			if(Runtime.getRuntime().maxMemory()-(Runtime.getRuntime().totalMemory() -
+					Runtime.getRuntime().freeMemory()) < 1000) {
+				mStatus = Status.MEMORY_FULL;
+				return false;
+			}
+			if (mNumberOfResults >= mMaxResults) {
+				mStatus = Status.MAX_RESULTS_REACHED;
+				return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Only counts the generated siteswaps, which is already done by the generator.
+	 */
+	private static class CountingSink implements SiteswapSink {
+		@Override
+		public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+			return true;
+		}
+	}
+
+	/**
+	 * Buffers the results of a task of the parallel generation, which runs ahead. The
+	 * task is stopped, when the buffer is full.
+	 */
+	private static class TaskSink implements SiteswapSink {
+		private final ArrayList<byte[]> mRecords = new ArrayList<byte[]>();
+		private boolean mIsFull = false;
+
+		@Override
+		public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+			if (mRecords.size() >= PARALLEL_BUFFER_SIZE) {
+				mIsFull = true;
+				return false;
+			}
+			byte[] record = Arrays.copyOf(siteswap, siteswap.length + 1);
+			record[siteswap.length] = (byte) synchronousStartPosition;
+			mRecords.add(record);
+			return true;
+		}
+	}
+
+	/**
+	 * Continues the backtracking from a node of the search tree in a worker generator.
+	 * The task is run either by the pool or by the thread, that passes the results to
+	 * the sink, whichever claims it first.
+	 */
+	private static class BacktrackingTask extends RecursiveTask<Status> {
+		private final SiteswapGenerator mWorker;
+		private final Siteswap mSiteswap;
+		private final LandingSlots mLandingSlots;
+		private final FilterPlan.State mFilterState;
+		private final int mCurrentIndex;
+		private final int mUniqueRepresentationIndex;
+		private final AtomicBoolean mIsClaimed = new AtomicBoolean(false);
+
+		BacktrackingTask(SiteswapGenerator worker, Siteswap siteswap, LandingSlots landingSlots,
+						 int currentIndex, int uniqueRepresentationIndex) {
+			mWorker = worker;
+			mSiteswap = new Siteswap(siteswap);
+			mLandingSlots = new LandingSlots(landingSlots);
+			mFilterState = new FilterPlan.State(worker.mFilterState);
+			mCurrentIndex = currentIndex;
+			mUniqueRepresentationIndex = uniqueRepresentationIndex;
+		}
+
+		boolean claim() {
+			return mIsClaimed.compareAndSet(false, true);
+		}
+
+		@Override
+		protected Status compute() {
+			if (!claim())
+				return null;
+			return run();
+		}
+
+		/**
+		 * Runs the backtracking from the node of the task. The worker continues at its
+		 * resume cursor, if it is set.
+		 */
+		Status run() {
+			mWorker.mFilterState = new FilterPlan.State(mFilterState);
+			return mWorker.backtracking(new Siteswap(mSiteswap), new LandingSlots(mLandingSlots),
+					mCurrentIndex, mUniqueRepresentationIndex);
+		}
+	}
+}
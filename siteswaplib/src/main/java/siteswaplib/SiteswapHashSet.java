@@ -0,0 +1,170 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.HashSet;
+
+/**
+ * Set of siteswaps, which treats all rotations of a siteswap as the same element.
+ * It can be used to remove duplicates from the results of several generator runs,
+ * from different synchronous start positions or from imported siteswaps.
+ *
+ * Short siteswaps are packed into a single long of their unique representation
+ * and stored in an open addressing hash table without creating any objects.
+ * All other siteswaps are stored by a string key in a HashSet.
+ */
+public class SiteswapHashSet {
+
+	// Packing into one long: 6 bits per throw, 4 bits period length,
+	// 3 bits synchronous start position and 3 bits number of synchronous hands.
+	private static final int BITS_PER_THROW = 6;
+	private static final int MAX_PACKED_PERIOD_LENGTH = 9;
+	private static final int MAX_PACKED_SYNCHRONOUS_HANDS = 8;
+	private static final int PERIOD_SHIFT = BITS_PER_THROW * MAX_PACKED_PERIOD_LENGTH;
+	private static final int START_POSITION_SHIFT = PERIOD_SHIFT + 4;
+	private static final int HANDS_SHIFT = START_POSITION_SHIFT + 3;
+	private static final long EMPTY = 0; // never a valid key, because the period is at least 1
+
+	private long[] mTable = new long[16];
+	private int mNumberOfPackedElements = 0;
+	private final HashSet<String> mOtherElements = new HashSet<String>();
+
+	public SiteswapHashSet() {
+	}
+
+	/**
+	 * Adds the siteswap. Returns true, if no rotation of it was contained before.
+	 */
+	public boolean add(Siteswap siteswap) {
+		return add(siteswap.toArray(), siteswap.getNumberOfSynchronousHands(),
+				siteswap.getSynchronousStartPosition());
+	}
+
+	/**
+	 * Adds a siteswap given by its throws, e.g. as passed to a SiteswapSink.
+	 * Returns true, if no rotation of it was contained before.
+	 */
+	public boolean add(byte[] siteswap, int numberOfSynchronousHands, int synchronousStartPosition) {
+		long key = pack(siteswap, numberOfSynchronousHands, synchronousStartPosition);
+		if (key == EMPTY)
+			return mOtherElements.add(toStringKey(siteswap, numberOfSynchronousHands,
+					synchronousStartPosition));
+
+		int index = find(key);
+		if (mTable[index] == key)
+			return false;
+		mTable[index] = key;
+		mNumberOfPackedElements++;
+		if (2 * mNumberOfPackedElements > mTable.length)
+			resize();
+		return true;
+	}
+
+	public boolean contains(Siteswap siteswap) {
+		return contains(siteswap.toArray(), siteswap.getNumberOfSynchronousHands(),
+				siteswap.getSynchronousStartPosition());
+	}
+
+	public boolean contains(byte[] siteswap, int numberOfSynchronousHands, int synchronousStartPosition) {
+		long key = pack(siteswap, numberOfSynchronousHands, synchronousStartPosition);
+		if (key == EMPTY)
+			return mOtherElements.contains(toStringKey(siteswap, numberOfSynchronousHands,
+					synchronousStartPosition));
+		return mTable[find(key)] == key;
+	}
+
+	public int size() {
+		return mNumberOfPackedElements + mOtherElements.size();
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public void clear() {
+		mTable = new long[16];
+		mNumberOfPackedElements = 0;
+		mOtherElements.clear();
+	}
+
+	// Returns the index of the key or of the empty slot, where it has to be inserted
+	private int find(long key) {
+		int mask = mTable.length - 1;
+		int index = hash(key) & mask;
+		while (mTable[index] != EMPTY && mTable[index] != key)
+			index = (index + 1) & mask;
+		return index;
+	}
+
+	private void resize() {
+		long[] oldTable = mTable;
+		mTable = new long[2 * oldTable.length];
+		for (long key : oldTable) {
+			if (key != EMPTY)
+				mTable[find(key)] = key;
+		}
+	}
+
+	private static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	/**
+	 * Packs the unique representation of the siteswap into a long. Returns EMPTY,
+	 * if the siteswap is too long or contains values, that can not be packed.
+	 */
+	static long pack(byte[] siteswap, int numberOfSynchronousHands, int synchronousStartPosition) {
+		int length = siteswap.length;
+		if (length == 0 || length > MAX_PACKED_PERIOD_LENGTH ||
+				numberOfSynchronousHands < 1 ||
+				numberOfSynchronousHands > MAX_PACKED_SYNCHRONOUS_HANDS)
+			return EMPTY;
+		int rotation = CyclicByteArray.getMaxRotationIndex(siteswap, 0);
+		long key = 0;
+		for (int i = 0; i < length; ++i) {
+			int index = rotation + i;
+			byte value = siteswap[index < length ? index : index - length];
+			if (value < 0 || value >= (1 << BITS_PER_THROW))
+				return EMPTY;
+			key |= ((long) value) << (BITS_PER_THROW * i);
+		}
+		int startPosition = Siteswap.getCanonicalSynchronousStartPosition(siteswap, rotation,
+				numberOfSynchronousHands, synchronousStartPosition);
+		key |= ((long) length) << PERIOD_SHIFT;
+		key |= ((long) startPosition) << START_POSITION_SHIFT;
+		key |= ((long) numberOfSynchronousHands - 1) << HANDS_SHIFT;
+		return key;
+	}
+
+	private static String toStringKey(byte[] siteswap, int numberOfSynchronousHands,
+									  int synchronousStartPosition) {
+		int rotation = CyclicByteArray.getMaxRotationIndex(siteswap, 0);
+		int startPosition = Siteswap.getCanonicalSynchronousStartPosition(siteswap, rotation,
+				numberOfSynchronousHands, synchronousStartPosition);
+		char[] key = new char[siteswap.length + 2];
+		key[0] = (char) numberOfSynchronousHands;
+		key[1] = (char) startPosition;
+		for (int i = 0; i < siteswap.length; ++i)
+			key[i + 2] = (char) (siteswap[(rotation + i) % siteswap.length] & 0xff);
+		return new String(key);
+	}
+}
@@ -0,0 +1,163 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pull style access to the results of a SiteswapGenerator. The generation runs in a
+ * background thread and is blocked, as long as QUEUE_CAPACITY results are not yet
+ * consumed. Thus the siteswaps can be processed one by one, without keeping all
+ * results in memory.
+ *
+ * If the iteration is stopped before all siteswaps are consumed, close() has to be
+ * called to stop the background thread.
+ */
+public class SiteswapIterator implements Iterator<Siteswap>, Closeable {
+
+	static final private int QUEUE_CAPACITY = 1024;
+	// marks the end of the generation in the queue
+	static final private Siteswap END_OF_GENERATION = new Siteswap();
+
+	private final SiteswapGenerator mGenerator;
+	private final BlockingQueue<Siteswap> mQueue;
+	private final Thread mThread;
+	private volatile boolean mIsClosed = false;
+	private volatile SiteswapGenerator.Status mStatus = SiteswapGenerator.Status.GENERATING;
+	private Siteswap mNext = null;
+	private boolean mIsFinished = false;
+
+	SiteswapIterator(SiteswapGenerator generator) {
+		mGenerator = generator;
+		mQueue = new ArrayBlockingQueue<Siteswap>(QUEUE_CAPACITY);
+		mThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				generate();
+			}
+		}, "SiteswapIterator");
+		mThread.setDaemon(true);
+		mThread.start();
+	}
+
+	private void generate() {
+		try {
+			mStatus = mGenerator.generateSiteswaps(new SiteswapSink() {
+				@Override
+				public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+					Siteswap result = new Siteswap(siteswap, mGenerator.getNumberOfJugglers());
+					result.setNumberOfSynchronousHands(mGenerator.getNumberOfSynchronousHands());
+					result.setSynchronousStartPosition(synchronousStartPosition);
+					try {
+						mQueue.put(result);
+					}
+					catch (InterruptedException e) {
+						return false;
+					}
+					return !mIsClosed;
+				}
+			});
+		}
+		finally {
+			if (!mIsClosed) {
+				try {
+					mQueue.put(END_OF_GENERATION);
+				}
+				catch (InterruptedException e) {
+					// iterator was closed
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (mNext != null)
+			return true;
+		if (mIsFinished || mIsClosed)
+			return false;
+		try {
+			mNext = mQueue.take();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		if (mNext == END_OF_GENERATION) {
+			mNext = null;
+			mIsFinished = true;
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public Siteswap next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		Siteswap siteswap = mNext;
+		mNext = null;
+		return siteswap;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Stops the generation and releases the background thread.
+	 */
+	@Override
+	public void close() {
+		if (mIsClosed)
+			return;
+		mIsClosed = true;
+		mGenerator.cancelGeneration();
+		mThread.interrupt();
+		mQueue.clear();
+	}
+
+	/**
+	 * Returns the status of the generation. The status is GENERATING, until all
+	 * siteswaps are consumed, and CANCELLED, if the iterator was closed before.
+	 */
+	public SiteswapGenerator.Status getStatus() {
+		if (mIsFinished)
+			return mStatus;
+		if (mIsClosed)
+			return SiteswapGenerator.Status.CANCELLED;
+		return SiteswapGenerator.Status.GENERATING;
+	}
+
+	/**
+	 * Returns an ordered spliterator over the remaining siteswaps, e.g. to process
+	 * the results as a stream.
+	 */
+	public Spliterator<Siteswap> spliterator() {
+		return Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+	}
+}
@@ -0,0 +1,445 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Persistent cache of generated siteswaps in a directory. The entries are keyed by
+ * the SHA-256 hash of the generation parameters and the parsable filter list, and
+ * contain the siteswaps as fixed width records of the throws and the synchronous
+ * start position. The records are streamed to a temporary file during the
+ * generation and read from the file again, so that they are not kept in memory. The
+ * status, cursor and number of siteswaps follow in a trailer, whose offset is
+ * stored in the last 8 bytes. Complete results are passed to the sink again without
+ * generation. Results of an interrupted generation are stored with the cursor of
+ * the generator, so that a later generation with more results continues at the
+ * cursor instead of starting again.
+ *
+ * The least recently used entries are deleted, when the total size of the entries
+ * exceeds the maximum size. Random generations are not cached.
+ */
+public class SiteswapResultCache {
+
+	public static final int BINARY_FORMAT_VERSION = 2;
+	static final private String FILE_SUFFIX = ".bin";
+	static final private String TEMPORARY_FILE_SUFFIX = ".tmp";
+	// Temporary files of interrupted processes are deleted after this time
+	static final private long TEMPORARY_FILE_MAX_AGE_MILLIS = 24 * 60 * 60 * 1000;
+
+	private final File mDirectory;
+	private final long mMaxBytes;
+	// file name -> size in bytes, in order of the last access
+	private final LinkedHashMap<String, Long> mEntries = new LinkedHashMap<String, Long>(16, 0.75f, true);
+	private long mTotalBytes = 0;
+
+	public SiteswapResultCache(File directory, long maxBytes) {
+		mDirectory = directory;
+		mMaxBytes = maxBytes;
+		mDirectory.mkdirs();
+		File[] files = mDirectory.listFiles();
+		if (files == null)
+			return;
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File lhs, File rhs) {
+				long lhsModified = lhs.lastModified();
+				long rhsModified = rhs.lastModified();
+				return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+			}
+		});
+		long now = System.currentTimeMillis();
+		for (File file : files) {
+			if (file.getName().endsWith(TEMPORARY_FILE_SUFFIX) &&
+					now - file.lastModified() > TEMPORARY_FILE_MAX_AGE_MILLIS)
+				file.delete();
+			if (!file.getName().endsWith(FILE_SUFFIX))
+				continue;
+			mEntries.put(file.getName(), file.length());
+			mTotalBytes += file.length();
+		}
+	}
+
+	/**
+	 * Returns the canonical string of all parameters, that determine the result of
+	 * the generator.
+	 */
+	public static String getKey(SiteswapGenerator generator) {
+		StringBuilder key = new StringBuilder(256);
+		key.append(BINARY_FORMAT_VERSION);
+		key.append(";period=").append(generator.getPeriodLength());
+		key.append(";maxThrow=").append(generator.getMaxThrow());
+		key.append(";minThrow=").append(generator.getMinThrow());
+		key.append(";objects=").append(generator.getNumberOfObjects());
+		key.append(";jugglers=").append(generator.getNumberOfJugglers());
+		key.append(";synchronousHands=").append(generator.getNumberOfSynchronousHands());
+		key.append(";random=").append(generator.isRandomGeneration());
+		key.append(";stateGraph=").append(generator.isStateGraphGeneration());
+		key.append(";filters=");
+		if (generator.getFilterList() instanceof FilterList)
+			key.append(((FilterList) generator.getFilterList()).toParsableString());
+		return key.toString();
+	}
+
+	static String getFileName(String key) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes("UTF-8"));
+			StringBuilder name = new StringBuilder(2 * hash.length + FILE_SUFFIX.length());
+			for (byte value : hash) {
+				name.append(Character.forDigit((value >> 4) & 0xf, 16));
+				name.append(Character.forDigit(value & 0xf, 16));
+			}
+			return name.append(FILE_SUFFIX).toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public synchronized long getTotalBytes() {
+		return mTotalBytes;
+	}
+
+	public synchronized int size() {
+		return mEntries.size();
+	}
+
+	/**
+	 * Passes the siteswaps of the generator to the sink, like
+	 * SiteswapGenerator.generateSiteswaps(sink), but takes them from the cache, if
+	 * possible. The maximum number of results of the generator applies to the
+	 * cached and the newly generated siteswaps together. If the results are taken
+	 * from the cache, the generator is not run and its state is not changed.
+	 */
+	public SiteswapGenerator.Status generateSiteswaps(SiteswapGenerator generator, SiteswapSink sink) {
+		if (generator.isRandomGeneration())
+			return generator.generateSiteswaps(sink);
+
+		String key = getKey(generator);
+		String fileName = getFileName(key);
+		int periodLength = generator.getPeriodLength();
+		int maxResults = generator.getMaxResults();
+		Entry entry = read(fileName, key, periodLength);
+		RecordingSink recordingSink = null;
+
+		if (entry != null) {
+			boolean isContinued = entry.mStatus != SiteswapGenerator.Status.ALL_SITESWAPS_FOUND &&
+					entry.mNumberOfSiteswaps < maxResults;
+			// the replayed siteswaps are recorded for the continued entry
+			if (isContinued)
+				recordingSink = new RecordingSink(sink, key, periodLength, 0);
+			int count = Math.min(entry.mNumberOfSiteswaps, maxResults);
+			byte[] siteswap = new byte[periodLength];
+			DataInputStream records = entry.mRecords;
+			int replayed = 0;
+			try {
+				for (; replayed < count; ++replayed) {
+					records.readFully(siteswap);
+					int synchronousStartPosition = records.readByte();
+					if (!sink.accept(siteswap, synchronousStartPosition)) {
+						if (recordingSink != null)
+							recordingSink.discard();
+						return getRefusedStatus(sink);
+					}
+					if (recordingSink != null)
+						recordingSink.record(siteswap, synchronousStartPosition);
+				}
+			}
+			catch (IOException e) {
+				// The entry is damaged. It is generated again, without passing the
+				// siteswaps already passed to the sink again.
+				synchronized (this) {
+					remove(fileName);
+				}
+				entry = null;
+				if (recordingSink != null)
+					recordingSink.discard();
+				recordingSink = new RecordingSink(sink, key, periodLength, replayed);
+			}
+			finally {
+				close(records);
+			}
+			if (entry != null && !isContinued) {
+				if (entry.mStatus == SiteswapGenerator.Status.ALL_SITESWAPS_FOUND &&
+						count == entry.mNumberOfSiteswaps)
+					return SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+				return SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+			}
+		}
+		if (recordingSink == null)
+			recordingSink = new RecordingSink(sink, key, periodLength, 0);
+
+		// generate the siteswaps after the cached ones
+		SiteswapGenerator.Status status;
+		if (entry != null) {
+			generator.setMaxResults(maxResults - entry.mNumberOfSiteswaps);
+			try {
+				status = generator.generateSiteswaps(recordingSink, entry.mCursor);
+			}
+			finally {
+				generator.setMaxResults(maxResults);
+			}
+		}
+		else {
+			status = generator.generateSiteswaps(recordingSink);
+		}
+
+		GenerationCursor cursor = generator.getCursor();
+		if (status == SiteswapGenerator.Status.ALL_SITESWAPS_FOUND)
+			recordingSink.commit(fileName, status, null);
+		else if (cursor != null)
+			recordingSink.commit(fileName, status, cursor);
+		else
+			recordingSink.discard();
+		return status;
+	}
+
+	/**
+	 * Returns MEMORY_FULL, if the sink refused a siteswap, because it is full,
+	 * and CANCELLED otherwise.
+	 */
+	static private SiteswapGenerator.Status getRefusedStatus(SiteswapSink sink) {
+		if (sink instanceof SiteswapSink.Bounded && ((SiteswapSink.Bounded) sink).isFull())
+			return SiteswapGenerator.Status.MEMORY_FULL;
+		return SiteswapGenerator.Status.CANCELLED;
+	}
+
+	/**
+	 * Deletes all entries.
+	 */
+	public synchronized void clear() {
+		for (String fileName : mEntries.keySet())
+			new File(mDirectory, fileName).delete();
+		mEntries.clear();
+		mTotalBytes = 0;
+	}
+
+	/**
+	 * Returns the entry with the records opened for reading or null, if it is not
+	 * cached or can not be read.
+	 */
+	private synchronized Entry read(String fileName, String key, int periodLength) {
+		if (!mEntries.containsKey(fileName))
+			return null;
+		File file = new File(mDirectory, fileName);
+		RandomAccessFile in = null;
+		try {
+			in = new RandomAccessFile(file, "r");
+			if (in.readInt() != BINARY_FORMAT_VERSION || !in.readUTF().equals(key) ||
+					in.readInt() != periodLength)
+				throw new IOException("Cache entry does not match");
+			long recordsOffset = in.getFilePointer();
+			in.seek(in.length() - 8);
+			long trailerOffset = in.readLong();
+			if (trailerOffset < recordsOffset || trailerOffset > in.length() - 8)
+				throw new IOException("Cache entry is damaged");
+			in.seek(trailerOffset);
+			Entry entry = new Entry();
+			entry.mStatus = SiteswapGenerator.Status.valueOf(in.readUTF());
+			entry.mCursor = in.readBoolean() ? GenerationCursor.readFrom(in) : null;
+			entry.mNumberOfSiteswaps = in.readInt();
+			if ((long) entry.mNumberOfSiteswaps * (periodLength + 1) != trailerOffset - recordsOffset)
+				throw new IOException("Cache entry is damaged");
+			FileInputStream records = new FileInputStream(file);
+			records.getChannel().position(recordsOffset);
+			entry.mRecords = new DataInputStream(new BufferedInputStream(records));
+			file.setLastModified(System.currentTimeMillis());
+			return entry;
+		}
+		catch (IOException e) {
+			remove(fileName);
+			return null;
+		}
+		catch (IllegalArgumentException e) {
+			remove(fileName);
+			return null;
+		}
+		finally {
+			close(in);
+		}
+	}
+
+	/**
+	 * Replaces the entry by the completely written temporary file.
+	 */
+	private synchronized void put(String fileName, File temporaryFile) {
+		File file = new File(mDirectory, fileName);
+		remove(fileName);
+		if (!temporaryFile.renameTo(file)) {
+			temporaryFile.delete();
+			return;
+		}
+		mEntries.put(fileName, file.length());
+		mTotalBytes += file.length();
+		evict();
+	}
+
+	private void remove(String fileName) {
+		Long size = mEntries.remove(fileName);
+		if (size != null)
+			mTotalBytes -= size;
+		new File(mDirectory, fileName).delete();
+	}
+
+	/**
+	 * Deletes the least recently used entries, until the total size is small enough.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<String, Long>> iterator = mEntries.entrySet().iterator();
+		while (mTotalBytes > mMaxBytes && iterator.hasNext()) {
+			Map.Entry<String, Long> eldest = iterator.next();
+			mTotalBytes -= eldest.getValue();
+			new File(mDirectory, eldest.getKey()).delete();
+			iterator.remove();
+		}
+	}
+
+	static private void close(java.io.Closeable stream) {
+		if (stream == null)
+			return;
+		try {
+			stream.close();
+		}
+		catch (IOException e) {
+		}
+	}
+
+	private static class Entry {
+		SiteswapGenerator.Status mStatus;
+		GenerationCursor mCursor;
+		int mNumberOfSiteswaps;
+		DataInputStream mRecords;
+	}
+
+	/**
+	 * Passes the siteswaps to the sink and writes the accepted ones to a temporary
+	 * file, until the records exceed the maximum size of the cache. A refused
+	 * siteswap is passed again, when the generation is continued at the cursor.
+	 * The first siteswaps are only recorded and not passed, if they were already
+	 * passed to the sink.
+	 */
+	private class RecordingSink implements SiteswapSink.Bounded {
+		private final SiteswapSink mSink;
+		private final int mRecordSize;
+		private int mNumberOfSkippedSiteswaps;
+		private long mHeaderSize = 0;
+		private File mTemporaryFile = null;
+		private DataOutputStream mOut = null;
+		private int mNumberOfSiteswaps = 0;
+
+		RecordingSink(SiteswapSink sink, String key, int periodLength, int numberOfSkippedSiteswaps) {
+			mSink = sink;
+			mRecordSize = periodLength + 1;
+			mNumberOfSkippedSiteswaps = numberOfSkippedSiteswaps;
+			try {
+				mTemporaryFile = File.createTempFile("entry", TEMPORARY_FILE_SUFFIX, mDirectory);
+				mOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mTemporaryFile)));
+				mOut.writeInt(BINARY_FORMAT_VERSION);
+				mOut.writeUTF(key);
+				mOut.writeInt(periodLength);
+				mHeaderSize = mOut.size();
+			}
+			catch (IOException e) {
+				// caching is optional: the generated siteswaps are passed anyway
+				discard();
+			}
+		}
+
+		@Override
+		public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+			if (mNumberOfSkippedSiteswaps > 0)
+				mNumberOfSkippedSiteswaps--;
+			else if (!mSink.accept(siteswap, synchronousStartPosition))
+				return false;
+			record(siteswap, synchronousStartPosition);
+			return true;
+		}
+
+		@Override
+		public boolean isFull() {
+			return mSink instanceof SiteswapSink.Bounded && ((SiteswapSink.Bounded) mSink).isFull();
+		}
+
+		void record(byte[] siteswap, int synchronousStartPosition) {
+			if (mOut == null)
+				return;
+			if ((long) (mNumberOfSiteswaps + 1) * mRecordSize > mMaxBytes) {
+				discard();
+				return;
+			}
+			try {
+				mOut.write(siteswap, 0, siteswap.length);
+				mOut.write(synchronousStartPosition);
+				mNumberOfSiteswaps++;
+			}
+			catch (IOException e) {
+				discard();
+			}
+		}
+
+		/**
+		 * Writes the trailer and replaces the cache entry by the recorded siteswaps.
+		 */
+		void commit(String fileName, SiteswapGenerator.Status status, GenerationCursor cursor) {
+			if (mOut == null)
+				return;
+			try {
+				long trailerOffset = mHeaderSize + (long) mNumberOfSiteswaps * mRecordSize;
+				mOut.writeUTF(status.name());
+				mOut.writeBoolean(cursor != null);
+				if (cursor != null)
+					cursor.writeTo(mOut);
+				mOut.writeInt(mNumberOfSiteswaps);
+				mOut.writeLong(trailerOffset);
+				mOut.close();
+				mOut = null;
+			}
+			catch (IOException e) {
+				discard();
+				return;
+			}
+			put(fileName, mTemporaryFile);
+		}
+
+		void discard() {
+			close(mOut);
+			mOut = null;
+			if (mTemporaryFile != null)
+				mTemporaryFile.delete();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractList;
+import java.util.ArrayList;
+
+/**
+ * Stores generated siteswaps outside of the Java heap. Every siteswap is stored as
+ * fixed width record of its throws and the synchronous start position in chunks of
+ * direct ByteBuffers or, if a directory is given, in a memory mapped temporary file.
+ * The store can be passed as sink to the SiteswapGenerator and provides a read only
+ * list view, which creates the Siteswap objects on access.
+ *
+ * If no more memory or disk space can be allocated, the store is full and the
+ * generator returns MEMORY_FULL. The store must be closed, when it is not used
+ * anymore, to release the memory and delete the temporary file. A closed store
+ * refuses all further siteswaps. The list view can be read by other threads,
+ * while the generator is still adding siteswaps.
+ */
+public class SiteswapResultStore extends AbstractList<Siteswap> implements SiteswapSink.Bounded, Closeable {
+
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	private final int mPeriodLength;
+	private final int mNumberOfJugglers;
+	private final int mNumberOfSynchronousHands;
+	private final int mRecordSize;
+	private final int mRecordsPerChunk;
+	private final ArrayList<ByteBuffer> mChunks = new ArrayList<ByteBuffer>();
+	private int mSize = 0;
+	private File mFile = null;
+	private RandomAccessFile mRandomAccessFile = null;
+	private FileChannel mChannel = null;
+	private boolean mIsFull = false;
+	private boolean mIsClosed = false;
+
+	/**
+	 * Creates a store in direct ByteBuffers.
+	 */
+	public SiteswapResultStore(int periodLength, int numberOfJugglers, int numberOfSynchronousHands) {
+		mPeriodLength = periodLength;
+		mNumberOfJugglers = numberOfJugglers;
+		mNumberOfSynchronousHands = numberOfSynchronousHands;
+		mRecordSize = periodLength + 1;
+		mRecordsPerChunk = CHUNK_SIZE / mRecordSize;
+	}
+
+	/**
+	 * Creates a store in a memory mapped temporary file in the given directory.
+	 */
+	public SiteswapResultStore(int periodLength, int numberOfJugglers, int numberOfSynchronousHands,
+							   File directory) throws IOException {
+		this(periodLength, numberOfJugglers, numberOfSynchronousHands);
+		mFile = File.createTempFile("siteswaps", ".bin", directory);
+		mRandomAccessFile = new RandomAccessFile(mFile, "rw");
+		mChannel = mRandomAccessFile.getChannel();
+	}
+
+	@Override
+	public synchronized boolean accept(byte[] siteswap, int synchronousStartPosition) {
+		if (siteswap.length != mPeriodLength)
+			throw new IllegalArgumentException("Period length does not match the store");
+		if (mIsClosed || mIsFull)
+			return false;
+		int chunkIndex = mSize / mRecordsPerChunk;
+		if (chunkIndex == mChunks.size()) {
+			try {
+				mChunks.add(allocateChunk(chunkIndex));
+			}
+			catch (IOException e) {
+				// disk full
+				mIsFull = true;
+				return false;
+			}
+			catch (OutOfMemoryError e) {
+				// no more direct memory
+				mIsFull = true;
+				return false;
+			}
+		}
+		ByteBuffer chunk = mChunks.get(chunkIndex);
+		int offset = (mSize % mRecordsPerChunk) * mRecordSize;
+		for (int i = 0; i < mPeriodLength; ++i)
+			chunk.put(offset + i, siteswap[i]);
+		chunk.put(offset + mPeriodLength, (byte) synchronousStartPosition);
+		mSize++;
+		modCount++;
+		return true;
+	}
+
+	ByteBuffer allocateChunk(int chunkIndex) throws IOException {
+		if (mChannel == null)
+			return ByteBuffer.allocateDirect(mRecordsPerChunk * mRecordSize);
+		return mChannel.map(FileChannel.MapMode.READ_WRITE,
+				(long) chunkIndex * mRecordsPerChunk * mRecordSize, mRecordsPerChunk * mRecordSize);
+	}
+
+	@Override
+	public synchronized Siteswap get(int index) {
+		if (index < 0 || index >= mSize)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+		ByteBuffer chunk = mChunks.get(index / mRecordsPerChunk);
+		int offset = (index % mRecordsPerChunk) * mRecordSize;
+		byte[] data = new byte[mPeriodLength];
+		for (int i = 0; i < mPeriodLength; ++i)
+			data[i] = chunk.get(offset + i);
+		Siteswap siteswap = new Siteswap(data, mNumberOfJugglers);
+		siteswap.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+		siteswap.setSynchronousStartPosition(chunk.get(offset + mPeriodLength));
+		return siteswap;
+	}
+
+	@Override
+	public synchronized int size() {
+		return mSize;
+	}
+
+	public int getPeriodLength() {
+		return mPeriodLength;
+	}
+
+	@Override
+	public synchronized boolean isFull() {
+		return mIsFull;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		mIsClosed = true;
+		mChunks.clear();
+		mSize = 0;
+		modCount++;
+		if (mChannel != null) {
+			mChannel.close();
+			mRandomAccessFile.close();
+			mChannel = null;
+			mRandomAccessFile = null;
+			mFile.delete();
+		}
+	}
+}
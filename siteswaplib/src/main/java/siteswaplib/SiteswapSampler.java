@@ -0,0 +1,332 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Draws uniformly distributed random siteswaps. Each siteswap of period n corresponds
+ * to a cycle of length n in the StateGraph. A cycle is drawn as closed walk from its
+ * smallest state, that only passes larger states. For every start state the number
+ * of such walks back to it is precounted per remaining length, so that a walk can be
+ * drawn uniformly by choosing each throw weighted by the number of completions. A
+ * cycle passing its smallest state k times has k such walks, so its walk is only
+ * accepted with the probability 1/k. Walks with a shorter period are rejected and
+ * the walk is rotated to the unique representation used by the SiteswapGenerator.
+ * The synchronous start position is drawn independently.
+ *
+ * The throws are restricted by the minimum and maximum throw and, for asynchronous
+ * patterns, by NumberFilters excluding throws. All other filters are applied by
+ * rejection. The counts are stored as double, which limits the uniformity to the
+ * double precision for huge numbers of siteswaps. They are cached per period, state
+ * graph and allowed throws, so that samplers with the same parameters share them.
+ */
+public class SiteswapSampler {
+
+	// Larger state graphs are sampled by the randomized backtracking of the generator
+	static final private int MAX_NUMBER_OF_STATES = 1500;
+	// Maximum number of stored completion counts per parameter set (8 bytes each)
+	static final private int MAX_STORED_COUNTS = 1 << 20;
+	static final private int MAX_CACHED_COUNTS = 2;
+
+	static private final Map<String, WalkCounts> sWalkCounts =
+			new LinkedHashMap<String, WalkCounts>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, WalkCounts> eldest) {
+					return size() > MAX_CACHED_COUNTS;
+				}
+			};
+
+	private final int mPeriodLength;
+	private final int mNumberOfJugglers;
+	private final int mNumberOfSynchronousHands;
+	private final FilterList mFilterList;
+	private final Random mRandom;
+	private WalkCounts mCounts = null;
+
+	public SiteswapSampler(int periodLength, int maxThrow, int minThrow, int numberOfObjects,
+						   int numberOfJugglers, int numberOfSynchronousHands,
+						   FilterList filterList, Random random) {
+		mPeriodLength = periodLength;
+		mNumberOfJugglers = numberOfJugglers;
+		mNumberOfSynchronousHands = numberOfSynchronousHands;
+		mFilterList = filterList;
+		mRandom = random;
+
+		if (periodLength < 1 || StateGraph.getNumberOfStates(numberOfObjects, maxThrow) > MAX_NUMBER_OF_STATES)
+			return;
+		StateGraph graph = StateGraph.getInstance(numberOfObjects, maxThrow);
+		if (graph == null)
+			return;
+		if (minThrow < 0)
+			minThrow = 0;
+		boolean[] allowedThrows = getAllowedThrows(maxThrow, minThrow);
+		StringBuilder key = new StringBuilder();
+		key.append(periodLength).append(':').append(numberOfObjects).append(':').append(maxThrow).append(':');
+		for (boolean isAllowed : allowedThrows)
+			key.append(isAllowed ? '1' : '0');
+		synchronized (sWalkCounts) {
+			mCounts = sWalkCounts.get(key.toString());
+			if (mCounts == null) {
+				mCounts = new WalkCounts(graph, allowedThrows, periodLength);
+				sWalkCounts.put(key.toString(), mCounts);
+			}
+		}
+	}
+
+	private boolean[] getAllowedThrows(int maxThrow, int minThrow) {
+		boolean[] allowedThrows = new boolean[maxThrow + 1];
+		for (int value = minThrow; value <= maxThrow; ++value)
+			allowedThrows[value] = true;
+		if (mFilterList == null || mNumberOfSynchronousHands != 1)
+			return allowedThrows;
+		Siteswap matcher = new Siteswap(new byte[0], mNumberOfJugglers);
+		for (Filter filter : mFilterList) {
+			if (!(filter instanceof NumberFilter))
+				continue;
+			NumberFilter numberFilter = (NumberFilter) filter;
+			if (numberFilter.getThresholdValue() != 0 ||
+					numberFilter.getType() == NumberFilter.Type.GREATER_EQUAL)
+				continue;
+			boolean[] matchingThrows = SiteswapCounter.getMatchingThrows(numberFilter, maxThrow, matcher);
+			for (int value = 0; value <= maxThrow; ++value) {
+				if (matchingThrows[value])
+					allowedThrows[value] = false;
+			}
+		}
+		return allowedThrows;
+	}
+
+	/**
+	 * Returns false, if the state graph is too large for sampling.
+	 */
+	public boolean isSupported() {
+		return mCounts != null;
+	}
+
+	/**
+	 * Returns true, if there is no siteswap with the allowed throws.
+	 */
+	public boolean isEmpty() {
+		return !isSupported() || mCounts.getNumberOfWalks() == 0;
+	}
+
+	/**
+	 * Draws a siteswap. Returns null, if the drawn siteswap has a shorter period,
+	 * does not fulfill the filters or is generated with another synchronous start
+	 * position. The non rejected siteswaps are uniformly distributed.
+	 */
+	public Siteswap sample() {
+		if (isEmpty())
+			return null;
+		int start = mCounts.getStart(mRandom.nextDouble() * mCounts.getNumberOfWalks());
+		int[][] successors = mCounts.mSuccessors;
+		byte[][] successorThrows = mCounts.mSuccessorThrows;
+		double[] completions = mCounts.getCompletions(start);
+		int width = successors.length - start;
+
+		byte[] data = new byte[mPeriodLength];
+		int state = start;
+		int numberOfStartVisits = 0;
+		for (int index = 0; index < mPeriodLength; ++index) {
+			if (state == start)
+				numberOfStartVisits++;
+			int remaining = (mPeriodLength - index - 1) * width - start;
+			double total = 0;
+			for (int successor : successors[state]) {
+				if (successor >= start)
+					total += completions[remaining + successor];
+			}
+			double choice = mRandom.nextDouble() * total;
+			int chosen = -1;
+			for (int i = 0; i < successors[state].length; ++i) {
+				int successor = successors[state][i];
+				if (successor < start || completions[remaining + successor] == 0)
+					continue;
+				// on rounding errors the last successor with completions is chosen
+				chosen = i;
+				choice -= completions[remaining + successor];
+				if (choice < 0)
+					break;
+			}
+			data[index] = successorThrows[state][chosen];
+			state = successors[state][chosen];
+		}
+		// the cycle is drawn once for each pass of the start state
+		if (numberOfStartVisits > 1 && mRandom.nextInt(numberOfStartVisits) != 0)
+			return null;
+
+		if (CyclicByteArray.getExactPeriod(data) != mPeriodLength)
+			return null;
+		// rotate the array itself, so that getData() is in the unique representation
+		int rotation = CyclicByteArray.getMaxRotationIndex(data, 0);
+		byte[] uniqueData = new byte[mPeriodLength];
+		for (int i = 0; i < mPeriodLength; ++i)
+			uniqueData[i] = data[(i + rotation) % mPeriodLength];
+		Siteswap siteswap = new Siteswap(uniqueData, mNumberOfJugglers);
+		siteswap.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+		siteswap.setSynchronousStartPosition(mRandom.nextInt(mNumberOfSynchronousHands));
+		if (mFilterList != null) {
+			for (Filter filter : mFilterList) {
+				if (!filter.isFulfilled(siteswap))
+					return null;
+			}
+		}
+		// the generator passes such a pattern only with its first start position
+		if (SiteswapGenerator.isFoundAtOtherStartPosition(siteswap, mFilterList))
+			return null;
+		return siteswap;
+	}
+
+	/**
+	 * The numbers of closed walks of a state graph with the allowed throws. The
+	 * completions of a start state are the numbers of walks from each state not
+	 * smaller than the start state back to it, without passing smaller states, for
+	 * each length from 0 to the period length. They are stored for the start states
+	 * with the most walks, up to MAX_STORED_COUNTS, and counted on demand for the
+	 * others. Immutable after construction.
+	 */
+	static private class WalkCounts {
+		private final int mPeriodLength;
+		private final int[][] mSuccessors;
+		private final byte[][] mSuccessorThrows;
+		// cumulative number of closed walks over the start states
+		private final double[] mCumulativeWalks;
+		private final double[][] mCompletions;
+
+		private WalkCounts(StateGraph graph, boolean[] allowedThrows, int periodLength) {
+			mPeriodLength = periodLength;
+			int numberOfStates = graph.getNumberOfStates();
+			mSuccessors = new int[numberOfStates][];
+			mSuccessorThrows = new byte[numberOfStates][];
+			restrictThrows(graph, allowedThrows);
+
+			mCumulativeWalks = new double[numberOfStates];
+			mCompletions = new double[numberOfStates][];
+			// The stored completions of the start states with the fewest walks are
+			// dropped first, when the limit is exceeded.
+			PriorityQueue<Integer> stored = new PriorityQueue<Integer>(16, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer first, Integer second) {
+					return Double.compare(getWalks(first), getWalks(second));
+				}
+			});
+			long numberOfStoredCounts = 0;
+			double walks = 0;
+			for (int start = 0; start < numberOfStates; ++start) {
+				double[] completions = countCompletions(start);
+				walks += completions[periodLength * (numberOfStates - start)];
+				mCumulativeWalks[start] = walks;
+				if (getWalks(start) == 0)
+					continue;
+				mCompletions[start] = completions;
+				stored.add(start);
+				numberOfStoredCounts += completions.length;
+				while (numberOfStoredCounts > MAX_STORED_COUNTS && stored.size() > 1) {
+					int dropped = stored.poll();
+					numberOfStoredCounts -= mCompletions[dropped].length;
+					mCompletions[dropped] = null;
+				}
+			}
+		}
+
+		/**
+		 * Keeps the edges of the state graph with allowed throws.
+		 */
+		private void restrictThrows(StateGraph graph, boolean[] allowedThrows) {
+			for (int state = 0; state < mSuccessors.length; ++state) {
+				int[] successors = graph.getSuccessors(state);
+				byte[] successorThrows = graph.getThrows(state);
+				int numberOfSuccessors = 0;
+				for (byte value : successorThrows) {
+					if (allowedThrows[value])
+						numberOfSuccessors++;
+				}
+				mSuccessors[state] = new int[numberOfSuccessors];
+				mSuccessorThrows[state] = new byte[numberOfSuccessors];
+				numberOfSuccessors = 0;
+				for (int i = 0; i < successors.length; ++i) {
+					if (!allowedThrows[successorThrows[i]])
+						continue;
+					mSuccessors[state][numberOfSuccessors] = successors[i];
+					mSuccessorThrows[state][numberOfSuccessors++] = successorThrows[i];
+				}
+			}
+		}
+
+		/**
+		 * Returns the completions of the start state. The number of walks of the given
+		 * length from a state is stored at length * (number of states - start) +
+		 * state - start.
+		 */
+		private double[] countCompletions(int start) {
+			int width = mSuccessors.length - start;
+			double[] completions = new double[(mPeriodLength + 1) * width];
+			completions[0] = 1;
+			for (int length = 1; length <= mPeriodLength; ++length) {
+				int previous = (length - 1) * width - start;
+				int current = length * width - start;
+				for (int state = start; state < mSuccessors.length; ++state) {
+					double count = 0;
+					for (int successor : mSuccessors[state]) {
+						if (successor >= start)
+							count += completions[previous + successor];
+					}
+					completions[current + state] = count;
+				}
+			}
+			return completions;
+		}
+
+		private double[] getCompletions(int start) {
+			double[] completions = mCompletions[start];
+			if (completions == null)
+				completions = countCompletions(start);
+			return completions;
+		}
+
+		private double getWalks(int start) {
+			return mCumulativeWalks[start] - (start == 0 ? 0 : mCumulativeWalks[start - 1]);
+		}
+
+		private double getNumberOfWalks() {
+			return mCumulativeWalks[mCumulativeWalks.length - 1];
+		}
+
+		/**
+		 * Returns the first start state with more cumulative walks.
+		 */
+		private int getStart(double walks) {
+			int start = 0;
+			int end = mCumulativeWalks.length - 1;
+			while (start < end) {
+				int middle = (start + end) / 2;
+				if (mCumulativeWalks[middle] <= walks)
+					start = middle + 1;
+				else
+					end = middle;
+			}
+			return start;
+		}
+	}
+}
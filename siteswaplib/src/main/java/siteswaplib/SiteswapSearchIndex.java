@@ -0,0 +1,326 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Search index over the displayed strings (see Siteswap.toString) of a random
+ * access list of siteswaps, e.g. a SiteswapResultStore. A query matches a siteswap,
+ * if it is contained in the periodic repetition of its string, i.e. for siteswaps
+ * of one juggler the match does not depend on the rotation. The search ignores
+ * case and whitespace.
+ *
+ * The index only keeps a trigram table: for each sequence of three characters,
+ * the indices of the siteswaps containing it, delta encoded in a byte array.
+ * Shorter queries are answered exactly from the table, longer queries are checked
+ * on the siteswaps of the list, which contain all their trigrams. The strings are
+ * not kept. The list may grow; update indexes the new entries. The index can be
+ * updated and searched from different threads. After close, the list is not
+ * accessed anymore, so that it can be closed, too.
+ */
+public class SiteswapSearchIndex {
+
+	// Codes of the characters 0-9, a-z and SYMBOLS; all other characters are
+	// mapped to OTHER_CODE, which can not occur in a query. 0 is not used.
+	private static final String SYMBOLS = "():,.*?!";
+	private static final int OTHER_CODE = 37 + SYMBOLS.length();
+	private static final int ALPHABET_SIZE = OTHER_CODE + 1;
+	private static final int GRAM_LENGTH = 3;
+
+	private final List<Siteswap> mSiteswaps;
+	private final PostingList[] mPostingLists =
+			new PostingList[ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE];
+	private int mSize = 0;
+	private volatile boolean mIsClosed = false;
+
+	/**
+	 * Creates an index for the given list, which should provide random access.
+	 */
+	public SiteswapSearchIndex(List<Siteswap> siteswaps) {
+		mSiteswaps = siteswaps;
+	}
+
+	/**
+	 * Indexes all siteswaps, which were added to the list since the last update.
+	 * @return the number of new entries
+	 */
+	public synchronized int update() {
+		if (mIsClosed)
+			return 0;
+		int oldSize = mSize;
+		int newSize = mSiteswaps.size();
+		for (int i = oldSize; i < newSize; ++i)
+			add(i, getText(i));
+		mSize = newSize;
+		return newSize - oldSize;
+	}
+
+	/**
+	 * Returns the string of the siteswap at the given index without whitespace.
+	 */
+	private String getText(int index) {
+		String str = mSiteswaps.get(index).toString();
+		StringBuilder text = new StringBuilder(str.length());
+		for (int i = 0; i < str.length(); ++i) {
+			char c = str.charAt(i);
+			if (!Character.isWhitespace(c))
+				text.append(c);
+		}
+		return text.toString();
+	}
+
+	private void add(int index, String text) {
+		int length = text.length();
+		for (int i = 0; i < length; ++i) {
+			int gram = 0;
+			for (int j = 0; j < GRAM_LENGTH; ++j)
+				gram = gram * ALPHABET_SIZE + toCode(text.charAt((i + j) % length));
+			PostingList list = mPostingLists[gram];
+			if (list == null) {
+				list = new PostingList();
+				mPostingLists[gram] = list;
+			}
+			// Trigrams occurring several times in a siteswap are only added once
+			if (list.mLast != index)
+				list.add(index);
+		}
+	}
+
+	/**
+	 * Stops all searches and updates. Afterwards, searches return no matches.
+	 */
+	public synchronized void close() {
+		mIsClosed = true;
+	}
+
+	/**
+	 * Returns the number of indexed siteswaps.
+	 */
+	public synchronized int size() {
+		return mSize;
+	}
+
+	/**
+	 * Returns the indices of all indexed siteswaps, which contain the query.
+	 */
+	public int[] search(String query) {
+		return search(query, 0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Returns the indices of the indexed siteswaps from fromIndex (inclusive) to
+	 * toIndex (exclusive), which contain the query. Can be used to extend a result
+	 * after an update.
+	 */
+	public int[] search(String query, int fromIndex, int toIndex) {
+		int[] pattern = toPattern(query);
+		if (pattern == null)
+			return new int[0];
+		int[] candidates;
+		synchronized (this) {
+			if (mIsClosed)
+				return new int[0];
+			fromIndex = Math.max(fromIndex, 0);
+			toIndex = Math.min(toIndex, mSize);
+			if (fromIndex >= toIndex)
+				return new int[0];
+			if (pattern.length == 0) {
+				int[] result = new int[toIndex - fromIndex];
+				for (int i = 0; i < result.length; ++i)
+					result[i] = fromIndex + i;
+				return result;
+			}
+			if (pattern.length <= GRAM_LENGTH)
+				return searchPrefix(pattern, fromIndex, toIndex);
+			candidates = searchTrigrams(pattern, fromIndex, toIndex);
+		}
+		// The list is read outside of the lock, so that updates are not blocked
+		int count = 0;
+		for (int index : candidates) {
+			// The list may be closed during the check
+			if (mIsClosed)
+				return new int[0];
+			if (matches(getText(index), pattern))
+				candidates[count++] = index;
+		}
+		return Arrays.copyOf(candidates, count);
+	}
+
+	/**
+	 * Returns the entries containing a pattern of at most three characters. As
+	 * every position of a periodic string starts a trigram, these are the
+	 * entries of all trigrams starting with the pattern.
+	 */
+	private int[] searchPrefix(int[] pattern, int fromIndex, int toIndex) {
+		int prefix = 0;
+		for (int code : pattern)
+			prefix = prefix * ALPHABET_SIZE + code;
+		int numberOfGrams = 1;
+		for (int i = pattern.length; i < GRAM_LENGTH; ++i)
+			numberOfGrams *= ALPHABET_SIZE;
+		if (numberOfGrams == 1)
+			return decode(mPostingLists[prefix], fromIndex, toIndex);
+		BitSet found = new BitSet(toIndex - fromIndex);
+		for (int gram = prefix * numberOfGrams; gram < (prefix + 1) * numberOfGrams; ++gram) {
+			for (int index : decode(mPostingLists[gram], fromIndex, toIndex))
+				found.set(index - fromIndex);
+		}
+		int[] result = new int[found.cardinality()];
+		int count = 0;
+		for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1))
+			result[count++] = fromIndex + i;
+		return result;
+	}
+
+	/**
+	 * Returns the entries containing all trigrams of the pattern.
+	 */
+	private int[] searchTrigrams(int[] pattern, int fromIndex, int toIndex) {
+		int[] result = null;
+		for (int i = 0; i + GRAM_LENGTH <= pattern.length; ++i) {
+			int gram = 0;
+			for (int j = 0; j < GRAM_LENGTH; ++j)
+				gram = gram * ALPHABET_SIZE + pattern[i + j];
+			int[] entries = decode(mPostingLists[gram], fromIndex, toIndex);
+			result = result == null ? entries : intersect(result, entries);
+			if (result.length == 0)
+				break;
+		}
+		return result;
+	}
+
+	private static int[] intersect(int[] a, int[] b) {
+		int[] result = new int[Math.min(a.length, b.length)];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j])
+				++i;
+			else if (a[i] > b[j])
+				++j;
+			else {
+				result[count++] = a[i];
+				++i;
+				++j;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static int[] decode(PostingList list, int fromIndex, int toIndex) {
+		if (list == null)
+			return new int[0];
+		int[] result = new int[16];
+		int count = 0;
+		int index = -1;
+		int position = 0;
+		while (position < list.mLength) {
+			int delta = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = list.mData[position++];
+				delta |= (b & 0x7f) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			index += delta;
+			if (index >= toIndex)
+				break;
+			if (index < fromIndex)
+				continue;
+			if (count == result.length)
+				result = Arrays.copyOf(result, 2 * count);
+			result[count++] = index;
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Returns true, if the pattern is contained in the periodic repetition of the
+	 * text.
+	 */
+	private static boolean matches(String text, int[] pattern) {
+		int length = text.length();
+		for (int start = 0; start < length; ++start) {
+			int i = 0;
+			while (i < pattern.length && toCode(text.charAt((start + i) % length)) == pattern[i])
+				++i;
+			if (i == pattern.length)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the codes of the query without whitespace or null, if the query
+	 * contains characters, which can not occur in the index.
+	 */
+	private static int[] toPattern(String query) {
+		int[] pattern = new int[query.length()];
+		int length = 0;
+		for (int i = 0; i < query.length(); ++i) {
+			char c = query.charAt(i);
+			if (Character.isWhitespace(c))
+				continue;
+			int code = toCode(c);
+			if (code == OTHER_CODE)
+				return null;
+			pattern[length++] = code;
+		}
+		return Arrays.copyOf(pattern, length);
+	}
+
+	private static int toCode(char c) {
+		if (c >= '0' && c <= '9')
+			return 1 + c - '0';
+		c = Character.toLowerCase(c);
+		if (c >= 'a' && c <= 'z')
+			return 11 + c - 'a';
+		int symbol = SYMBOLS.indexOf(c);
+		if (symbol >= 0)
+			return 37 + symbol;
+		return OTHER_CODE;
+	}
+
+	/**
+	 * Ascending indices, stored as variable length differences to the
+	 * previous index.
+	 */
+	private static class PostingList {
+		private byte[] mData = new byte[4];
+		private int mLength = 0;
+		private int mLast = -1;
+
+		private void add(int index) {
+			int delta = index - mLast;
+			mLast = index;
+			if (mLength + 5 > mData.length)
+				mData = Arrays.copyOf(mData, 2 * mData.length + 5);
+			while (delta >= 0x80) {
+				mData[mLength++] = (byte) (delta | 0x80);
+				delta >>>= 7;
+			}
+			mData[mLength++] = (byte) delta;
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+/**
+ * Receives the siteswaps found by the SiteswapGenerator as soon as they are found.
+ * Instead of collecting all results in a list, the caller can process, write out or
+ * count the results during the generation.
+ */
+public interface SiteswapSink {
+
+	/**
+	 * Is called for every generated siteswap. The array is owned by the generator and
+	 * is overwritten, when the generation continues. It has to be copied, if the
+	 * siteswap shall be kept.
+	 *
+	 * @param siteswap throw values of the generated siteswap
+	 * @param synchronousStartPosition synchronous position of the first throw
+	 * @return true to continue the generation, false to cancel it
+	 */
+	boolean accept(byte[] siteswap, int synchronousStartPosition);
+
+	/**
+	 * Sink with a limited storage. If accept returns false, because the storage is
+	 * full, the generator returns MEMORY_FULL instead of CANCELLED.
+	 */
+	interface Bounded extends SiteswapSink {
+
+		/**
+		 * Returns true, if no more siteswaps can be stored.
+		 */
+		boolean isFull();
+	}
+
+	/**
+	 * Sink, that can stop a generation between two siteswaps, e.g. on a timeout.
+	 * Enumerations, that search a long time without finding a siteswap, check it
+	 * regularly.
+	 */
+	interface Cancelable extends SiteswapSink {
+
+		/**
+		 * Returns true, if the generation shall be stopped.
+		 */
+		boolean isCanceled();
+	}
+}
@@ -0,0 +1,307 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Generates the siteswaps for several minimum throws, maximum throws and filter
+ * lists with the same period, number of objects, jugglers and synchronous hands in a
+ * single search. The widest configuration is generated once, with the filters, that
+ * all buckets have in common. Each result is then passed to every bucket, whose
+ * throw range and remaining filters it fulfills. The siteswaps of each bucket are
+ * the same and in the same order as of a SiteswapGenerator with its parameters.
+ */
+public class SiteswapSweep {
+
+	private final int mPeriodLength;
+	private final int mNumberOfObjects;
+	private final int mNumberOfJugglers;
+	private final int mNumberOfSynchronousHands;
+	private final List<Bucket> mBuckets = new ArrayList<Bucket>();
+	private int mTimeoutSeconds = 100;
+	private boolean mIsParallelGeneration = false;
+	private SiteswapGenerator mGenerator = null;
+	private SiteswapGenerator.Status mStatus = null;
+
+	public SiteswapSweep(int periodLength, int numberOfObjects, int numberOfJugglers,
+						 int numberOfSynchronousHands) {
+		mPeriodLength = periodLength;
+		mNumberOfObjects = numberOfObjects;
+		mNumberOfJugglers = numberOfJugglers;
+		mNumberOfSynchronousHands = numberOfSynchronousHands;
+	}
+
+	/**
+	 * Adds a bucket, whose siteswaps are collected in a list.
+	 */
+	public Bucket addBucket(int minThrow, int maxThrow, FilterList filterList) {
+		return addBucket(minThrow, maxThrow, filterList, null);
+	}
+
+	/**
+	 * Adds a bucket, whose siteswaps are passed to the sink. If the sink refuses a
+	 * siteswap, only this bucket is cancelled.
+	 */
+	public Bucket addBucket(int minThrow, int maxThrow, FilterList filterList, SiteswapSink sink) {
+		Bucket bucket = new Bucket(minThrow, maxThrow, filterList, sink);
+		mBuckets.add(bucket);
+		return bucket;
+	}
+
+	public List<Bucket> getBuckets() {
+		return mBuckets;
+	}
+
+	public void setTimeoutSeconds(int timeoutSeconds) {
+		mTimeoutSeconds = timeoutSeconds;
+	}
+
+	public void setParallelGeneration(boolean isParallelGeneration) {
+		mIsParallelGeneration = isParallelGeneration;
+	}
+
+	public synchronized void cancelGeneration() {
+		if (mGenerator != null)
+			mGenerator.cancelGeneration();
+	}
+
+	/**
+	 * Returns the status of the search of the widest configuration.
+	 */
+	public SiteswapGenerator.Status getStatus() {
+		return mStatus;
+	}
+
+	/**
+	 * Generates the siteswaps of all buckets. Returns the status of the search. The
+	 * search ends early, when all buckets reached their maximum number of results
+	 * or were cancelled by their sinks.
+	 */
+	public SiteswapGenerator.Status generateSiteswaps() {
+		if (mBuckets.isEmpty())
+			return SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+
+		int minThrow = Integer.MAX_VALUE;
+		int maxThrow = 0;
+		for (Bucket bucket : mBuckets) {
+			minThrow = Math.min(minThrow, bucket.mMinThrow);
+			maxThrow = Math.max(maxThrow, bucket.mMaxThrow);
+		}
+		FilterList commonFilters = getCommonFilters();
+		for (Bucket bucket : mBuckets)
+			bucket.prepare(commonFilters);
+
+		SiteswapGenerator generator = new SiteswapGenerator(mPeriodLength, maxThrow, minThrow,
+				mNumberOfObjects, mNumberOfJugglers, commonFilters);
+		generator.setSyncPattern(mNumberOfSynchronousHands != 1);
+		generator.setTimeoutSeconds(mTimeoutSeconds);
+		generator.setParallelGeneration(mIsParallelGeneration);
+		synchronized (this) {
+			mGenerator = generator;
+		}
+		SiteswapGenerator.Status status = generator.generateSiteswaps(new SiteswapSink() {
+			@Override
+			public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+				return classify(siteswap, synchronousStartPosition);
+			}
+		});
+		synchronized (this) {
+			mGenerator = null;
+		}
+		if (status == SiteswapGenerator.Status.CANCELLED && isEveryBucketDone())
+			status = SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+		mStatus = status;
+		for (Bucket bucket : mBuckets) {
+			if (bucket.mStatus == null)
+				bucket.mStatus = status;
+		}
+		return status;
+	}
+
+	/**
+	 * Returns the filters, that are contained in the filter lists of all buckets.
+	 */
+	private FilterList getCommonFilters() {
+		FilterList commonFilters = new FilterList();
+		if (mBuckets.get(0).mFilterList == null)
+			return commonFilters;
+		for (Filter filter : mBuckets.get(0).mFilterList) {
+			boolean isCommon = true;
+			for (Bucket bucket : mBuckets) {
+				if (!containsFilter(bucket.mFilterList, filter)) {
+					isCommon = false;
+					break;
+				}
+			}
+			if (isCommon)
+				commonFilters.add(filter);
+		}
+		return commonFilters;
+	}
+
+	// PatternFilter.equals also matches InterfaceFilters, so the classes are compared too
+	static private boolean containsFilter(List<Filter> filterList, Filter filter) {
+		if (filterList == null)
+			return false;
+		for (Filter other : filterList) {
+			if (other.getClass() == filter.getClass() && other.equals(filter))
+				return true;
+		}
+		return false;
+	}
+
+	private boolean classify(byte[] siteswap, int synchronousStartPosition) {
+		// The first throw is the maximum throw of the unique representation. The
+		// minimum throw is checked from the second throw on, like in the generator.
+		int maxThrow = siteswap[0];
+		int minThrow = Integer.MAX_VALUE;
+		for (int i = 1; i < siteswap.length; ++i)
+			minThrow = Math.min(minThrow, siteswap[i]);
+
+		Siteswap result = null;
+		boolean isAnyBucketOpen = false;
+		for (Bucket bucket : mBuckets) {
+			if (bucket.mStatus != null)
+				continue;
+			isAnyBucketOpen = true;
+			if (maxThrow > bucket.mMaxThrow || minThrow < bucket.mMinThrow)
+				continue;
+			if (!bucket.mRemainingFilters.isEmpty()) {
+				if (result == null) {
+					result = new Siteswap(siteswap, mNumberOfJugglers);
+					result.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+					result.setSynchronousStartPosition(synchronousStartPosition);
+				}
+				if (!bucket.isFulfilled(result))
+					continue;
+			}
+			bucket.accept(siteswap, synchronousStartPosition);
+		}
+		return isAnyBucketOpen && !isEveryBucketDone();
+	}
+
+	private boolean isEveryBucketDone() {
+		for (Bucket bucket : mBuckets) {
+			if (bucket.mStatus == null)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Parameters and results of one sweep point.
+	 */
+	public class Bucket {
+		private final int mMinThrow;
+		private final int mMaxThrow;
+		private final FilterList mFilterList;
+		private final SiteswapSink mSink;
+		private final LinkedList<Siteswap> mSiteswaps;
+		private List<Filter> mRemainingFilters = null;
+		private int mMaxResults = 1000000000;
+		private long mNumberOfResults = 0;
+		private SiteswapGenerator.Status mStatus = null;
+
+		Bucket(int minThrow, int maxThrow, FilterList filterList, SiteswapSink sink) {
+			mMinThrow = Math.max(minThrow, 0);
+			mMaxThrow = maxThrow;
+			mFilterList = filterList;
+			mSink = sink;
+			mSiteswaps = (sink == null) ? new LinkedList<Siteswap>() : null;
+		}
+
+		private void prepare(FilterList commonFilters) {
+			mNumberOfResults = 0;
+			mStatus = null;
+			if (mSiteswaps != null)
+				mSiteswaps.clear();
+			mRemainingFilters = new ArrayList<Filter>();
+			if (mFilterList == null)
+				return;
+			for (Filter filter : mFilterList) {
+				if (!containsFilter(commonFilters, filter))
+					mRemainingFilters.add(filter);
+			}
+		}
+
+		private boolean isFulfilled(Siteswap siteswap) {
+			for (Filter filter : mRemainingFilters) {
+				if (!filter.isFulfilled(siteswap))
+					return false;
+			}
+			return true;
+		}
+
+		private void accept(byte[] siteswap, int synchronousStartPosition) {
+			mNumberOfResults++;
+			if (mSink != null) {
+				if (!mSink.accept(siteswap, synchronousStartPosition)) {
+					mStatus = SiteswapGenerator.Status.CANCELLED;
+					return;
+				}
+			}
+			else {
+				Siteswap result = new Siteswap(siteswap, mNumberOfJugglers);
+				result.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+				result.setSynchronousStartPosition(synchronousStartPosition);
+				mSiteswaps.add(result);
+			}
+			if (mNumberOfResults >= mMaxResults)
+				mStatus = SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+		}
+
+		public int getMinThrow() {
+			return mMinThrow;
+		}
+
+		public int getMaxThrow() {
+			return mMaxThrow;
+		}
+
+		public FilterList getFilterList() {
+			return mFilterList;
+		}
+
+		public void setMaxResults(int maxResults) {
+			mMaxResults = maxResults;
+		}
+
+		public long getNumberOfGeneratedSiteswaps() {
+			return mNumberOfResults;
+		}
+
+		/**
+		 * Returns the siteswaps of the bucket or null, if they were passed to a sink.
+		 */
+		public LinkedList<Siteswap> getSiteswaps() {
+			return mSiteswaps;
+		}
+
+		/**
+		 * Returns MAX_RESULTS_REACHED or CANCELLED, if the bucket ended before the
+		 * search, and otherwise the status of the search.
+		 */
+		public SiteswapGenerator.Status getStatus() {
+			return mStatus;
+		}
+	}
+}
@@ -0,0 +1,385 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The juggling states of asynchronous patterns with a given number of objects and
+ * maximum throw. A state is the set of future beats, on which an object lands, stored
+ * as bitmask: bit i is set, if an object lands i beats after the current one. Each
+ * throw is an edge from a state to the state of the next beat, and each siteswap of
+ * period n is a cycle of length n in the graph.
+ *
+ * The graphs are immutable and cached by getInstance(), so that counting, sampling
+ * and enumeration with the same parameters share one graph. The states are sorted by
+ * their bitmask, i.e. the ground state has the index 0.
+ */
+public final class StateGraph {
+
+	// Larger state graphs are not created
+	static final private int MAX_NUMBER_OF_STATES = 20000;
+	static final private int MAX_CACHED_GRAPHS = 8;
+
+	static private final Map<Integer, StateGraph> sGraphs =
+			new LinkedHashMap<Integer, StateGraph>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, StateGraph> eldest) {
+					return size() > MAX_CACHED_GRAPHS;
+				}
+			};
+
+	private final int mNumberOfObjects;
+	private final int mMaxThrow;
+	private final long[] mStates;
+	private final int[][] mSuccessors;
+	private final byte[][] mThrows;
+
+	/**
+	 * Returns the graph for the given parameters or null, if the graph has more than
+	 * MAX_NUMBER_OF_STATES states or the parameters are invalid.
+	 */
+	static public StateGraph getInstance(int numberOfObjects, int maxThrow) {
+		if (numberOfObjects < 1 || maxThrow < numberOfObjects || maxThrow > 62 ||
+				getNumberOfStates(numberOfObjects, maxThrow) > MAX_NUMBER_OF_STATES)
+			return null;
+		Integer key = (numberOfObjects << 8) | maxThrow;
+		synchronized (sGraphs) {
+			StateGraph graph = sGraphs.get(key);
+			if (graph == null) {
+				graph = new StateGraph(numberOfObjects, maxThrow);
+				sGraphs.put(key, graph);
+			}
+			return graph;
+		}
+	}
+
+	/**
+	 * Returns the number of states of the graph, which is the number of ways to
+	 * distribute the objects to maxThrow beats.
+	 */
+	static public long getNumberOfStates(int numberOfObjects, int maxThrow) {
+		if (numberOfObjects < 0 || numberOfObjects > maxThrow)
+			return 0;
+		long result = 1;
+		for (int i = 1; i <= numberOfObjects; ++i)
+			result = result * (maxThrow - numberOfObjects + i) / i;
+		return result;
+	}
+
+	private StateGraph(int numberOfObjects, int maxThrow) {
+		mNumberOfObjects = numberOfObjects;
+		mMaxThrow = maxThrow;
+
+		List<Long> states = new ArrayList<Long>();
+		collectStates(0, 0, numberOfObjects, maxThrow, states);
+		mStates = new long[states.size()];
+		for (int i = 0; i < mStates.length; ++i)
+			mStates[i] = states.get(i);
+		Arrays.sort(mStates);
+
+		mSuccessors = new int[mStates.length][];
+		mThrows = new byte[mStates.length][];
+		int[] successors = new int[maxThrow + 1];
+		byte[] successorThrows = new byte[maxThrow + 1];
+		for (int index = 0; index < mStates.length; ++index) {
+			long state = mStates[index];
+			int numberOfSuccessors = 0;
+			if ((state & 1) == 0) {
+				successors[numberOfSuccessors] = getIndex(state >> 1);
+				successorThrows[numberOfSuccessors++] = 0;
+			}
+			else {
+				for (int value = 1; value <= maxThrow; ++value) {
+					if ((state & (1L << value)) != 0)
+						continue;
+					successors[numberOfSuccessors] = getIndex((state | (1L << value)) >> 1);
+					successorThrows[numberOfSuccessors++] = (byte) value;
+				}
+			}
+			mSuccessors[index] = Arrays.copyOf(successors, numberOfSuccessors);
+			mThrows[index] = Arrays.copyOf(successorThrows, numberOfSuccessors);
+		}
+	}
+
+	static private void collectStates(long state, int position, int remainingObjects,
+									  int length, List<Long> states) {
+		if (remainingObjects == 0) {
+			states.add(state);
+			return;
+		}
+		for (int i = position; i <= length - remainingObjects; ++i)
+			collectStates(state | (1L << i), i + 1, remainingObjects - 1, length, states);
+	}
+
+	public int getNumberOfObjects() {
+		return mNumberOfObjects;
+	}
+
+	public int getMaxThrow() {
+		return mMaxThrow;
+	}
+
+	public int getNumberOfStates() {
+		return mStates.length;
+	}
+
+	public long getState(int index) {
+		return mStates[index];
+	}
+
+	/**
+	 * Returns the index of the state or -1, if it is not a state of the graph.
+	 */
+	public int getIndex(long state) {
+		int index = Arrays.binarySearch(mStates, state);
+		return index < 0 ? -1 : index;
+	}
+
+	public long getGroundState() {
+		return (1L << mNumberOfObjects) - 1;
+	}
+
+	// The arrays are not copied and must not be modified. The throw
+	// throws[i] leads to the state successors[i].
+	int[] getSuccessors(int index) {
+		return mSuccessors[index];
+	}
+
+	byte[] getThrows(int index) {
+		return mThrows[index];
+	}
+
+	/**
+	 * Returns the successors of each state, that are reached by the allowed throws.
+	 */
+	int[][] getSuccessors(boolean[] allowedThrows) {
+		int[][] transitions = new int[mStates.length][];
+		for (int index = 0; index < mStates.length; ++index) {
+			int[] successors = new int[mSuccessors[index].length];
+			int numberOfSuccessors = 0;
+			for (int i = 0; i < mSuccessors[index].length; ++i) {
+				if (isAllowed(mThrows[index][i], allowedThrows))
+					successors[numberOfSuccessors++] = mSuccessors[index][i];
+			}
+			transitions[index] = Arrays.copyOf(successors, numberOfSuccessors);
+		}
+		return transitions;
+	}
+
+	static private boolean isAllowed(int value, boolean[] allowedThrows) {
+		return allowedThrows == null || (value < allowedThrows.length && allowedThrows[value]);
+	}
+
+	/**
+	 * Returns the state before the first throw of the asynchronous throws, i.e. the
+	 * beats, on which the objects thrown in the previous periods land. The result is
+	 * only a state of a graph, if the throws are a valid siteswap.
+	 */
+	static public long getState(byte[] siteswap) {
+		int periodLength = siteswap.length;
+		long state = 0;
+		for (int i = 0; i < periodLength; ++i) {
+			for (int beat = i + siteswap[i] - periodLength; beat >= 0; beat -= periodLength)
+				state |= 1L << beat;
+		}
+		return state;
+	}
+
+	/**
+	 * Returns true, if the siteswap can be juggled from the ground state without
+	 * transition, e.g. 531, but not 51.
+	 */
+	static public boolean isGroundState(Siteswap siteswap) {
+		long state = getState(siteswap.toArray());
+		return state == (1L << Long.bitCount(state)) - 1;
+	}
+
+	/**
+	 * Enumerates the siteswaps with the allowed throws as cycles of the given length
+	 * and passes them to the sink in the unique representation of the
+	 * SiteswapGenerator. Rotations and siteswaps with a shorter period are passed
+	 * once. Returns false, if the sink refused a siteswap or, if it is a
+	 * SiteswapSink.Cancelable, was canceled. This is checked once per start state.
+	 *
+	 * Each cycle is enumerated from its smallest state only, walking through larger
+	 * states. Of the rotations, that start in the smallest state, only the
+	 * lexicographically largest is passed. The walks are pruned by the states, from
+	 * which the start is reached in the remaining number of throws. These are found
+	 * by a backward search from the start, that only visits states, which can occur
+	 * in a siteswap of the period.
+	 */
+	public boolean enumerateCycles(int periodLength, boolean[] allowedThrows, SiteswapSink sink) {
+		if (periodLength < 1)
+			return true;
+		byte[] siteswap = new byte[periodLength];
+		int[] path = new int[periodLength + 1];
+		int[][] predecessors = getPredecessors(periodLength, allowedThrows);
+		// reachable[n][state] is start + 1, if the start can be reached from the state
+		// with exactly n throws, so that the table is not cleared for each start
+		int[][] reachable = new int[periodLength + 1][mStates.length];
+		int[] frontier = new int[mStates.length];
+		int[] nextFrontier = new int[mStates.length];
+		for (int start = 0; start < mStates.length; ++start) {
+			if (sink instanceof SiteswapSink.Cancelable && ((SiteswapSink.Cancelable) sink).isCanceled())
+				return false;
+			if (!isPeriodic(mStates[start], periodLength))
+				continue;
+			if (!findReachableStates(start, predecessors, reachable, frontier, nextFrontier))
+				continue;
+			path[0] = start;
+			if (!enumerateCycles(start, 0, allowedThrows, reachable, siteswap, path, sink))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true, if the state can occur in a siteswap of the given period. The
+	 * state repeats after a period, so an object landing in more than periodLength
+	 * beats lands on a beat of the state again after the period.
+	 */
+	static private boolean isPeriodic(long state, int periodLength) {
+		return periodLength >= Long.SIZE || ((state >> periodLength) & ~state) == 0;
+	}
+
+	/**
+	 * Returns the predecessors of each state, that reach it by an allowed throw.
+	 * Only states, that can occur in a siteswap of the given period, are included.
+	 */
+	private int[][] getPredecessors(int periodLength, boolean[] allowedThrows) {
+		boolean[] isPeriodic = new boolean[mStates.length];
+		for (int state = 0; state < mStates.length; ++state)
+			isPeriodic[state] = isPeriodic(mStates[state], periodLength);
+		int[] numberOfPredecessors = new int[mStates.length];
+		for (int state = 0; state < mStates.length; ++state) {
+			if (!isPeriodic[state])
+				continue;
+			for (int i = 0; i < mSuccessors[state].length; ++i) {
+				if (isPeriodic[mSuccessors[state][i]] && isAllowed(mThrows[state][i], allowedThrows))
+					numberOfPredecessors[mSuccessors[state][i]]++;
+			}
+		}
+		int[][] predecessors = new int[mStates.length][];
+		for (int state = 0; state < mStates.length; ++state) {
+			predecessors[state] = new int[numberOfPredecessors[state]];
+			numberOfPredecessors[state] = 0;
+		}
+		for (int state = 0; state < mStates.length; ++state) {
+			if (!isPeriodic[state])
+				continue;
+			for (int i = 0; i < mSuccessors[state].length; ++i) {
+				if (!isPeriodic[mSuccessors[state][i]] || !isAllowed(mThrows[state][i], allowedThrows))
+					continue;
+				int successor = mSuccessors[state][i];
+				predecessors[successor][numberOfPredecessors[successor]++] = state;
+			}
+		}
+		return predecessors;
+	}
+
+	/**
+	 * Marks reachable[n][state] with start + 1, if the start state can be reached from
+	 * the state with exactly n throws, without passing states smaller than start.
+	 * Only the states reached backwards from start are visited. Returns true, if
+	 * there is a cycle of length reachable.length - 1.
+	 */
+	private boolean findReachableStates(int start, int[][] predecessors, int[][] reachable,
+										int[] frontier, int[] nextFrontier) {
+		int mark = start + 1;
+		reachable[0][start] = mark;
+		frontier[0] = start;
+		int frontierSize = 1;
+		for (int steps = 1; steps < reachable.length; ++steps) {
+			int[] reached = reachable[steps];
+			int nextFrontierSize = 0;
+			for (int i = 0; i < frontierSize; ++i) {
+				for (int predecessor : predecessors[frontier[i]]) {
+					if (predecessor >= start && reached[predecessor] != mark) {
+						reached[predecessor] = mark;
+						nextFrontier[nextFrontierSize++] = predecessor;
+					}
+				}
+			}
+			if (nextFrontierSize == 0)
+				return false;
+			int[] temp = frontier;
+			frontier = nextFrontier;
+			nextFrontier = temp;
+			frontierSize = nextFrontierSize;
+		}
+		return reachable[reachable.length - 1][start] == mark;
+	}
+
+	private boolean enumerateCycles(int start, int index, boolean[] allowedThrows,
+									int[][] reachable, byte[] siteswap, int[] path,
+									SiteswapSink sink) {
+		int periodLength = siteswap.length;
+		if (index == periodLength) {
+			if (!isCanonicalRotation(siteswap, path, start))
+				return true;
+			return sink.accept(getUniqueRepresentation(siteswap), 0);
+		}
+		int state = path[index];
+		int[] remaining = reachable[periodLength - index - 1];
+		for (int i = 0; i < mSuccessors[state].length; ++i) {
+			int successor = mSuccessors[state][i];
+			if (successor < start || remaining[successor] != start + 1 ||
+					!isAllowed(mThrows[state][i], allowedThrows))
+				continue;
+			siteswap[index] = mThrows[state][i];
+			path[index + 1] = successor;
+			if (!enumerateCycles(start, index + 1, allowedThrows, reachable, siteswap, path, sink))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true, if the siteswap has no shorter period and is lexicographically
+	 * larger than all its other rotations, that start in the start state.
+	 */
+	static private boolean isCanonicalRotation(byte[] siteswap, int[] path, int start) {
+		int periodLength = siteswap.length;
+		for (int rotation = 1; rotation < periodLength; ++rotation) {
+			if (path[rotation] != start)
+				continue;
+			int i = 0;
+			while (i < periodLength && siteswap[i] == siteswap[(i + rotation) % periodLength])
+				++i;
+			// equal rotations mean a shorter period
+			if (i == periodLength || siteswap[i] < siteswap[(i + rotation) % periodLength])
+				return false;
+		}
+		return true;
+	}
+
+	static private byte[] getUniqueRepresentation(byte[] siteswap) {
+		int periodLength = siteswap.length;
+		int rotation = CyclicByteArray.getMaxRotationIndex(siteswap, 0);
+		byte[] data = new byte[periodLength];
+		for (int i = 0; i < periodLength; ++i)
+			data[i] = siteswap[(i + rotation) % periodLength];
+		return data;
+	}
+}
@@ -0,0 +1,185 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the shortest transitions between asynchronous siteswaps in the StateGraph.
+ * A transition is the sequence of throws, that leads from the state after a period
+ * of the first siteswap to the state before the second siteswap.
+ *
+ * For each target state the distances of all states to it are calculated once by
+ * a breadth first search backwards through the graph and cached, so that repeated
+ * queries to the same siteswaps only walk along the shortest paths. A finder can be
+ * used by several threads.
+ */
+public class TransitionFinder {
+
+	static final private int MAX_CACHED_DISTANCE_TABLES = 64;
+	static final private int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final StateGraph mGraph;
+	private final boolean[] mAllowedThrows;
+	private final int[][] mPredecessors;
+	private final Map<Integer, int[]> mDistances =
+			new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+					return size() > MAX_CACHED_DISTANCE_TABLES;
+				}
+			};
+
+	/**
+	 * Creates a finder for transitions with throws up to maxThrow, which do not
+	 * contain any of the excluded throws. Throws an IllegalArgumentException, if
+	 * the state graph is too large.
+	 */
+	public TransitionFinder(int numberOfObjects, int maxThrow, int... excludedThrows) {
+		mGraph = StateGraph.getInstance(numberOfObjects, maxThrow);
+		if (mGraph == null)
+			throw new IllegalArgumentException("No state graph for " + numberOfObjects +
+					" objects and max throw " + maxThrow);
+		mAllowedThrows = new boolean[maxThrow + 1];
+		Arrays.fill(mAllowedThrows, true);
+		for (int value : excludedThrows) {
+			if (value >= 0 && value <= maxThrow)
+				mAllowedThrows[value] = false;
+		}
+
+		int numberOfStates = mGraph.getNumberOfStates();
+		int[][] successors = mGraph.getSuccessors(mAllowedThrows);
+		int[] numberOfPredecessors = new int[numberOfStates];
+		for (int[] stateSuccessors : successors) {
+			for (int successor : stateSuccessors)
+				numberOfPredecessors[successor]++;
+		}
+		mPredecessors = new int[numberOfStates][];
+		for (int state = 0; state < numberOfStates; ++state)
+			mPredecessors[state] = new int[numberOfPredecessors[state]];
+		Arrays.fill(numberOfPredecessors, 0);
+		for (int state = 0; state < numberOfStates; ++state) {
+			for (int successor : successors[state])
+				mPredecessors[successor][numberOfPredecessors[successor]++] = state;
+		}
+	}
+
+	public StateGraph getStateGraph() {
+		return mGraph;
+	}
+
+	/**
+	 * Returns the number of throws of the shortest transition from the first to the
+	 * second siteswap or -1, if there is no transition.
+	 */
+	public int getDistance(Siteswap from, Siteswap to) {
+		int fromIndex = getStateIndex(from);
+		int toIndex = getStateIndex(to);
+		if (fromIndex < 0 || toIndex < 0)
+			return -1;
+		int distance = getDistances(toIndex)[fromIndex];
+		return distance == UNREACHABLE ? -1 : distance;
+	}
+
+	/**
+	 * Returns all shortest transitions from the first to the second siteswap. If no
+	 * transition is needed, the list contains an empty siteswap. If there is no
+	 * transition, the list is empty.
+	 */
+	public List<Siteswap> findTransitions(Siteswap from, Siteswap to) {
+		return findTransitions(from, to, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Same as findTransitions(from, to), but returns at most maxNumberOfTransitions
+	 * transitions.
+	 */
+	public List<Siteswap> findTransitions(Siteswap from, Siteswap to, int maxNumberOfTransitions) {
+		List<Siteswap> transitions = new LinkedList<Siteswap>();
+		int fromIndex = getStateIndex(from);
+		int toIndex = getStateIndex(to);
+		if (fromIndex < 0 || toIndex < 0 || maxNumberOfTransitions <= 0)
+			return transitions;
+		int[] distances = getDistances(toIndex);
+		if (distances[fromIndex] == UNREACHABLE)
+			return transitions;
+		byte[] transition = new byte[distances[fromIndex]];
+		collectTransitions(fromIndex, 0, distances, transition, from.getNumberOfJugglers(),
+				maxNumberOfTransitions, transitions);
+		return transitions;
+	}
+
+	private void collectTransitions(int state, int index, int[] distances, byte[] transition,
+									int numberOfJugglers, int maxNumberOfTransitions,
+									List<Siteswap> transitions) {
+		if (index == transition.length) {
+			transitions.add(new Siteswap(transition.clone(), numberOfJugglers));
+			return;
+		}
+		int[] successors = mGraph.getSuccessors(state);
+		byte[] successorThrows = mGraph.getThrows(state);
+		for (int i = 0; i < successors.length; ++i) {
+			if (!mAllowedThrows[successorThrows[i]] ||
+					distances[successors[i]] != transition.length - index - 1)
+				continue;
+			transition[index] = successorThrows[i];
+			collectTransitions(successors[i], index + 1, distances, transition,
+					numberOfJugglers, maxNumberOfTransitions, transitions);
+			if (transitions.size() >= maxNumberOfTransitions)
+				return;
+		}
+	}
+
+	private int getStateIndex(Siteswap siteswap) {
+		if (siteswap.getNumberOfObjects() != mGraph.getNumberOfObjects() || !siteswap.isValid())
+			return -1;
+		return mGraph.getIndex(StateGraph.getState(siteswap.toArray()));
+	}
+
+	/**
+	 * Returns the number of throws from each state to the target state.
+	 */
+	private synchronized int[] getDistances(int target) {
+		int[] distances = mDistances.get(target);
+		if (distances != null)
+			return distances;
+		distances = new int[mPredecessors.length];
+		Arrays.fill(distances, UNREACHABLE);
+		int[] queue = new int[mPredecessors.length];
+		int head = 0;
+		int tail = 0;
+		distances[target] = 0;
+		queue[tail++] = target;
+		while (head < tail) {
+			int state = queue[head++];
+			for (int predecessor : mPredecessors[state]) {
+				if (distances[predecessor] != UNREACHABLE)
+					continue;
+				distances[predecessor] = distances[state] + 1;
+				queue[tail++] = predecessor;
+			}
+		}
+		mDistances.put(target, distances);
+		return distances;
+	}
+}
@@ -0,0 +1,119 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class FilterPlanTest {
+
+    private void assertSameResult(FilterList filters, Siteswap siteswap) {
+        FilterPlan plan = new FilterPlan(filters, siteswap.period_length(), 15,
+                siteswap.getNumberOfJugglers(), siteswap.getNumberOfSynchronousHands());
+        FilterPlan.State state = plan.createState();
+        for (int i = 0; i < siteswap.period_length(); ++i) {
+            plan.addThrow(state, i, siteswap.getSynchronousPosition(i), siteswap.at(i));
+            boolean expected = true;
+            for (Filter filter : filters)
+                expected = expected && filter.isPartlyFulfilled(siteswap, i);
+            assertEquals(expected, plan.isPartlyFulfilled(state, siteswap, i));
+        }
+        boolean expected = true;
+        for (Filter filter : filters)
+            expected = expected && filter.isFulfilled(siteswap);
+        assertEquals(expected, plan.isFulfilled(state, siteswap));
+    }
+
+    private Siteswap randomSiteswap(Random random, int maxPeriod, int numberOfSynchronousHands) {
+        byte[] data = new byte[1 + random.nextInt(maxPeriod)];
+        for (int i = 0; i < data.length; ++i)
+            data[i] = (byte) random.nextInt(16);
+        Siteswap siteswap = new Siteswap(data, 2);
+        siteswap.setNumberOfSynchronousHands(numberOfSynchronousHands);
+        siteswap.setSynchronousStartPosition(random.nextInt(numberOfSynchronousHands));
+        return siteswap;
+    }
+
+    @Test
+    public void testDefaultFilters() {
+        Random random = new Random(1);
+        for (int numberOfSynchronousHands = 1; numberOfSynchronousHands <= 2; ++numberOfSynchronousHands) {
+            FilterList filters = new FilterList(2, numberOfSynchronousHands);
+            filters.removeZips(2, numberOfSynchronousHands);
+            filters.add(new NumberFilter("3p", NumberFilter.Type.SMALLER_EQUAL, 1, numberOfSynchronousHands));
+            filters.add(new PatternFilter(new Siteswap("22"), PatternFilter.Type.EXCLUDE));
+            for (int n = 0; n < 1000; ++n)
+                assertSameResult(filters, randomSiteswap(random, 7, numberOfSynchronousHands));
+        }
+    }
+
+    @Test
+    public void testPatternFilters() {
+        Random random = new Random(2);
+        String[] patterns = {"3", "44", "s", "pp", "5?", "?1?4", "6s2p", "a", "8?????????s"};
+        for (int n = 0; n < 3000; ++n) {
+            FilterList filters = new FilterList();
+            for (int i = 0; i < 1 + random.nextInt(4); ++i) {
+                Siteswap pattern = new Siteswap(patterns[random.nextInt(patterns.length)]);
+                PatternFilter.Type type = random.nextBoolean() ?
+                        PatternFilter.Type.INCLUDE : PatternFilter.Type.EXCLUDE;
+                if (random.nextInt(4) == 0)
+                    filters.add(new LocalPatternFilter(pattern, type, 2));
+                else
+                    filters.add(new PatternFilter(pattern, type));
+            }
+            // few random values to get matching patterns
+            byte[] data = new byte[1 + random.nextInt(8)];
+            for (int i = 0; i < data.length; ++i)
+                data[i] = (byte) (3 + random.nextInt(4));
+            assertSameResult(filters, new Siteswap(data, 2));
+            assertSameResult(filters, randomSiteswap(random, 8, 1));
+        }
+    }
+
+    @Test
+    public void testInterfaceFilters() {
+        SiteswapGenerator generator = new SiteswapGenerator(5, 8, 0, 4, 2, new FilterList());
+        generator.generateSiteswaps();
+        String[] patterns = {"pp", "s?s", "6", "p4", "??4"};
+        for (String pattern : patterns) {
+            for (PatternFilter.Type type : PatternFilter.Type.values()) {
+                FilterList filters = new FilterList();
+                filters.add(new InterfaceFilter(new Siteswap(pattern), type));
+                filters.add(new LocalInterfaceFilter(new Siteswap("p"), PatternFilter.Type.INCLUDE, 2));
+                for (Siteswap siteswap : generator.getSiteswaps())
+                    assertSameResult(filters, siteswap);
+            }
+        }
+    }
+
+    @Test
+    public void testManyPatterns() {
+        FilterList filters = new FilterList();
+        for (int i = 0; i < 50; ++i)
+            filters.add(new PatternFilter(new Siteswap(Integer.toString(i, 7)), PatternFilter.Type.EXCLUDE));
+        filters.add(new PatternFilter(new Siteswap("6"), PatternFilter.Type.INCLUDE));
+        Random random = new Random(3);
+        for (int n = 0; n < 1000; ++n)
+            assertSameResult(filters, randomSiteswap(random, 10, 1));
+    }
+}
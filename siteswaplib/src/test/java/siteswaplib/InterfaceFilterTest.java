@@ -40,4 +40,20 @@ public class InterfaceFilterTest {
 
     }
 
+    @Test
+    public void testPartlyFulfilled() {
+        // interface of 531 is 135
+        Siteswap siteswap = new Siteswap("531");
+        InterfaceFilter include1 = new InterfaceFilter(new Siteswap("35"), InterfaceFilter.Type.INCLUDE);
+        InterfaceFilter include2 = new InterfaceFilter(new Siteswap("55"), InterfaceFilter.Type.INCLUDE);
+        InterfaceFilter exclude = new InterfaceFilter(new Siteswap("35"), InterfaceFilter.Type.EXCLUDE);
+
+        assertEquals(true, include1.isPartlyFulfilled(siteswap, 0));
+        assertEquals(true, include1.isPartlyFulfilled(siteswap, 2));
+        assertEquals(true, include2.isPartlyFulfilled(siteswap, 1));
+        assertEquals(false, include2.isPartlyFulfilled(siteswap, 2));
+        assertEquals(true, exclude.isPartlyFulfilled(siteswap, 0));
+        assertEquals(false, exclude.isPartlyFulfilled(siteswap, 1));
+    }
+
 }
@@ -0,0 +1,107 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class LandingSlotsTest {
+
+    // Reference implementation on a cyclic interface array
+    private int maxSumToGenerate(boolean[] occupied, int periodLength, int maxThrow, int index) {
+        int maxSum = 0;
+        int interfaceIndex = periodLength + maxThrow - 2;
+        for (int i = periodLength - 1; i >= index; --i) {
+            while (occupied[interfaceIndex % periodLength]) {
+                interfaceIndex--;
+                if (interfaceIndex < i)
+                    return 0;
+            }
+            maxSum += (interfaceIndex - i);
+            interfaceIndex--;
+        }
+        return maxSum;
+    }
+
+    private int minSumToGenerate(boolean[] occupied, int periodLength, int minThrow, int maxThrow, int index) {
+        int minSum = 0;
+        int interfaceIndex = index + minThrow;
+        for (int i = index; i < periodLength; ++i) {
+            while (occupied[interfaceIndex % periodLength]) {
+                interfaceIndex++;
+                if ((interfaceIndex - i) > maxThrow)
+                    return maxThrow;
+            }
+            minSum += (interfaceIndex - i);
+            interfaceIndex++;
+        }
+        return minSum;
+    }
+
+    private void compareWithReference(int periodLength, int maxThrow, Random random) {
+        LandingSlots landingSlots = new LandingSlots(periodLength, maxThrow);
+        boolean[] occupied = new boolean[periodLength];
+        int sum = 0;
+        for (int index = 0; index < periodLength; ++index) {
+            int value = random.nextInt(maxThrow + 1);
+            if (random.nextBoolean() || !landingSlots.isFree(index + value))
+                continue;
+            assertEquals(false, occupied[(index + value) % periodLength]);
+            landingSlots.occupy(index, value);
+            occupied[(index + value) % periodLength] = true;
+            sum += value;
+        }
+        assertEquals(sum, landingSlots.getSumOfThrows());
+        for (int position = 0; position < periodLength + maxThrow; ++position)
+            assertEquals(!occupied[position % periodLength], landingSlots.isFree(position));
+        for (int index = 1; index <= periodLength; ++index) {
+            assertEquals(maxSumToGenerate(occupied, periodLength, maxThrow, index),
+                    landingSlots.getMaxSumToGenerate(index, maxThrow));
+            for (int minThrow = 0; minThrow <= 2; ++minThrow) {
+                assertEquals(minSumToGenerate(occupied, periodLength, minThrow, maxThrow, index),
+                        landingSlots.getMinSumToGenerate(index, minThrow, maxThrow));
+            }
+        }
+    }
+
+    @Test
+    public void testSumsToGenerate() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; ++i) {
+            compareWithReference(1 + random.nextInt(12), 1 + random.nextInt(20), random);
+            compareWithReference(30 + random.nextInt(60), 1 + random.nextInt(40), random);
+        }
+    }
+
+    @Test
+    public void testRelease() {
+        LandingSlots landingSlots = new LandingSlots(5, 9);
+        landingSlots.occupy(1, 7);
+        assertEquals(false, landingSlots.isFree(3));
+        assertEquals(false, landingSlots.isFree(8));
+        assertEquals(false, landingSlots.isFree(13));
+        landingSlots.release(1, 7);
+        assertEquals(true, landingSlots.isFree(3));
+        assertEquals(true, landingSlots.isFree(8));
+        assertEquals(0, landingSlots.getSumOfThrows());
+    }
+}
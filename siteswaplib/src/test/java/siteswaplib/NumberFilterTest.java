@@ -74,6 +74,32 @@ public class NumberFilterTest {
         assertEquals(expected4, siteswap2.countFilterValue(filter2.getFilterValue()));
     }
 
+    @Test
+    public void testPartlyFulfilledWithCount() {
+        NumberFilter filter = new NumberFilter("9p", NumberFilter.Type.GREATER_EQUAL, 9, 3);
+        Siteswap siteswap = new Siteswap("8859a57889a059a49a5919a3783", 3);
+        siteswap.setNumberOfSynchronousHands(3);
+        siteswap.setSynchronousStartPosition(2);
+        int count = 0;
+        for (int i = 0; i < siteswap.period_length(); ++i) {
+            count = siteswap.countFilterValuePartitially(filter.getFilterValue(), i);
+            assertEquals(filter.isPartlyFulfilled(siteswap, i),
+                    filter.isPartlyFulfilled(count, siteswap.global_period_length(), i));
+        }
+        assertEquals(siteswap.countFilterValue(filter.getFilterValue()), count);
+        assertTrue(filter.isFulfilled(count));
+    }
+
+    @Test
+    public void testValuesUpdatedOnChange() {
+        NumberFilter filter = new NumberFilter("9p", NumberFilter.Type.EQUAL, 1, 3);
+        assertArrayEquals(new int[]{10, 11}, filter.getFilterValue().getValues(0));
+        filter.getFilterValue().setValue(7);
+        assertArrayEquals(new int[]{7, 8}, filter.getFilterValue().getValues(0));
+        filter.setNumberOfSynchronousHands(2);
+        assertArrayEquals(new int[]{7}, filter.getFilterValue().getValues(0));
+    }
+
     @Test
     public void testParsableStringConversion() {
         NumberFilter filter1 = new NumberFilter("9p", NumberFilter.Type.EQUAL, 1, 3);
@@ -42,4 +42,17 @@ public class PatternFilterTest {
 
     }
 
+    @Test
+    public void testPartlyFulfilledInclude() {
+        Siteswap siteswap = new Siteswap("9753");
+        PatternFilter filter1 = new PatternFilter(new Siteswap("53"), PatternFilter.Type.INCLUDE);
+        PatternFilter filter2 = new PatternFilter(new Siteswap("79"), PatternFilter.Type.INCLUDE);
+
+        assertEquals(true, filter1.isPartlyFulfilled(siteswap, 1));
+        assertEquals(true, filter1.isPartlyFulfilled(siteswap, 3));
+        // the last throw is not generated yet and might be a 7
+        assertEquals(true, filter2.isPartlyFulfilled(siteswap, 2));
+        assertEquals(false, filter2.isPartlyFulfilled(siteswap, 3));
+    }
+
 }
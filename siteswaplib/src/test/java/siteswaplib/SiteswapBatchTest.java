@@ -0,0 +1,143 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static siteswaplib.SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+import static siteswaplib.SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+
+public class SiteswapBatchTest {
+
+    private static long countSiteswaps(int period, int maxThrow, int objects, int jugglers) {
+        SiteswapGenerator gen = new SiteswapGenerator(period, maxThrow, 0, objects, jugglers,
+                new FilterList(jugglers, 1));
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+        return gen.getNumberOfGeneratedSiteswaps();
+    }
+
+    private static String[] lines(ByteArrayOutputStream stream) throws Exception {
+        String str = stream.toString("UTF-8");
+        return str.isEmpty() ? new String[0] : str.split("\n");
+    }
+
+    @Test
+    public void testParseRange() {
+        assertArrayEquals(new int[] {5}, SiteswapBatch.parseRange("5"));
+        assertArrayEquals(new int[] {5, 6, 7}, SiteswapBatch.parseRange("5..7"));
+        assertArrayEquals(new int[] {3, 10, 11, 12}, SiteswapBatch.parseRange("3,a..c"));
+        assertEquals(12, SiteswapBatch.parseValue("c"));
+        assertEquals(12, SiteswapBatch.parseValue("12"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingParameter() {
+        new SiteswapBatch("--objects", "5", "--period", "3");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        new SiteswapBatch("--objects", "5..3", "--period", "3", "--max-throw", "9");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFilters() {
+        new SiteswapBatch("--objects", "5", "--period", "3", "--max-throw", "9",
+                "--filters", "BOGUS:x;");
+    }
+
+    @Test
+    public void testNdjson() throws Exception {
+        SiteswapBatch batch = new SiteswapBatch("--objects", "3..4", "--period", "2..4",
+                "--max-throw", "7", "--jugglers", "1..2", "--threads", "3");
+        assertEquals(12, batch.getRuns().size());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        assertTrue(batch.run(output, report));
+
+        long[] counts = new long[batch.getRuns().size()];
+        for (String line : lines(output)) {
+            assertTrue(line, line.matches("\\{\"run\":\\d+,\"siteswap\":\"[^\"]+\"\\}"));
+            counts[Integer.parseInt(line.substring(7, line.indexOf(',')))]++;
+        }
+        assertEquals(batch.getRuns().size(), lines(report).length);
+        for (String line : lines(report))
+            assertTrue(line, line.contains("\"status\":\"ALL_SITESWAPS_FOUND\""));
+
+        for (SiteswapBatch.Run run : batch.getRuns()) {
+            assertEquals(ALL_SITESWAPS_FOUND, run.getStatus());
+            assertEquals(counts[run.getIndex()], run.getNumberOfResults());
+        }
+        // runs are ordered by jugglers, objects, max throw and period
+        assertEquals(countSiteswaps(4, 7, 3, 1), batch.getRuns().get(2).getNumberOfResults());
+        assertEquals(countSiteswaps(3, 7, 4, 2), batch.getRuns().get(10).getNumberOfResults());
+    }
+
+    @Test
+    public void testCsvWithFilters() throws Exception {
+        FilterList filters = new FilterList();
+        filters.add(new NumberFilter(0, NumberFilter.Type.EQUAL, 0, 1));
+        SiteswapBatch batch = new SiteswapBatch("--objects", "3", "--period", "5",
+                "--max-throw", "9", "--filters", filters.toParsableString(), "--format", "csv",
+                "--max-results", "10");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        assertFalse(batch.run(output, report));
+
+        String[] outputLines = lines(output);
+        assertEquals("run,siteswap", outputLines[0]);
+        assertEquals(11, outputLines.length);
+        for (int i = 1; i < outputLines.length; ++i) {
+            assertTrue(outputLines[i].startsWith("0,"));
+            assertFalse(outputLines[i].substring(2).contains("0"));
+        }
+        String[] reportLines = lines(report);
+        assertEquals(2, reportLines.length);
+        assertTrue(reportLines[1], reportLines[1].startsWith("0,3,5,9,0,1,false,MAX_RESULTS_REACHED,10,"));
+        assertEquals(MAX_RESULTS_REACHED, batch.getRuns().get(0).getStatus());
+    }
+
+    @Test
+    public void testBinary() throws Exception {
+        SiteswapBatch batch = new SiteswapBatch("--objects", "4", "--period", "3",
+                "--max-throw", "8", "--jugglers", "2", "--sync", "--format", "binary");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertTrue(batch.run(output, new ByteArrayOutputStream()));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(SiteswapBatch.BINARY_FORMAT_VERSION, in.readInt());
+        int count = 0;
+        while (in.available() > 0) {
+            assertEquals(0, in.readInt());
+            Siteswap siteswap = Siteswap.readFrom(in);
+            assertEquals(2, siteswap.getNumberOfSynchronousHands());
+            count++;
+        }
+        assertTrue(count > 0);
+        assertEquals(count, batch.getRuns().get(0).getNumberOfResults());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static siteswaplib.SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+import static siteswaplib.SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+
+public class SiteswapCounterTest {
+
+    private long enumerate(int period, int maxThrow, int minThrow, int numberOfObjects,
+                           int numberOfJugglers, FilterList filters) {
+        SiteswapGenerator gen = new SiteswapGenerator(period, maxThrow, minThrow,
+                numberOfObjects, numberOfJugglers, filters);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+        return gen.getNumberOfGeneratedSiteswaps();
+    }
+
+    @Test
+    public void testCountWithoutFilters() {
+        for (int period = 1; period <= 6; ++period) {
+            for (int maxThrow = 3; maxThrow <= 9; ++maxThrow) {
+                long expected = enumerate(period, maxThrow, 0, 3, 1, new FilterList());
+                assertEquals(expected, SiteswapCounter.countSiteswaps(period, maxThrow, 0, 3, 1, new FilterList()));
+            }
+        }
+    }
+
+    @Test
+    public void testCountWithDefaultFilters() {
+        int numberOfJugglers = 2;
+        for (int period = 1; period <= 7; ++period) {
+            for (int minThrow = 0; minThrow <= 2; ++minThrow) {
+                FilterList filters = new FilterList(numberOfJugglers, 1);
+                filters.removeZips(numberOfJugglers, 1);
+                filters.removeHolds(numberOfJugglers, 1);
+                long expected = enumerate(period, 10, minThrow, 6, numberOfJugglers, filters);
+                assertEquals(expected, SiteswapCounter.countSiteswaps(period, 10, minThrow, 6, numberOfJugglers, filters));
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedFilters() {
+        FilterList filters = new FilterList();
+        filters.add(new PatternFilter(new Siteswap("22"), PatternFilter.Type.EXCLUDE));
+        assertEquals(-1, SiteswapCounter.countSiteswaps(5, 10, 2, 6, 2, filters));
+
+        filters.clear();
+        filters.add(new NumberFilter(Siteswap.PASS, NumberFilter.Type.EQUAL, 2, 1));
+        assertEquals(-1, SiteswapCounter.countSiteswaps(5, 10, 2, 6, 2, filters));
+    }
+
+    @Test
+    public void testCountSiteswaps() {
+        FilterList filters = new FilterList(2, 2);
+        filters.add(new PatternFilter(new Siteswap("22"), PatternFilter.Type.EXCLUDE));
+        SiteswapGenerator gen = new SiteswapGenerator(6, 10, 2, 6, 2, filters);
+        gen.setSyncPattern(true);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+        long expected = gen.getSiteswaps().size();
+        assertEquals(ALL_SITESWAPS_FOUND, gen.countSiteswaps());
+        assertEquals(expected, gen.getNumberOfGeneratedSiteswaps());
+        gen.setParallelGeneration(true);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.countSiteswaps());
+        assertEquals(expected, gen.getNumberOfGeneratedSiteswaps());
+
+        gen = new SiteswapGenerator(7, 10, 2, 6, 2);
+        gen.setMaxResults(100);
+        assertEquals(MAX_RESULTS_REACHED, gen.countSiteswaps());
+        assertEquals(100, gen.getNumberOfGeneratedSiteswaps());
+    }
+
+    @Test
+    public void testCanceledCounting() {
+        SiteswapCounter.Cancelable canceled = new SiteswapCounter.Cancelable() {
+            @Override
+            public boolean isCanceled() {
+                return true;
+            }
+        };
+        SiteswapCounter.Cancelable running = new SiteswapCounter.Cancelable() {
+            @Override
+            public boolean isCanceled() {
+                return false;
+            }
+        };
+        assertEquals(-1, SiteswapCounter.countSiteswaps(15, 7, 0, 3, 1, new FilterList(), canceled));
+        assertEquals(SiteswapCounter.countSiteswaps(15, 7, 0, 3, 1, new FilterList()),
+                SiteswapCounter.countSiteswaps(15, 7, 0, 3, 1, new FilterList(), running));
+        // Short periods are enumerated faster than counted
+        assertEquals(-1, SiteswapCounter.countSiteswaps(3, 17, 0, 7, 1, new FilterList(), running));
+    }
+}
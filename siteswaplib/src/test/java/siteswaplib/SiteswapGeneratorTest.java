@@ -0,0 +1,344 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static siteswaplib.SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+import static siteswaplib.SiteswapGenerator.Status.CANCELLED;
+import static siteswaplib.SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+
+public class SiteswapGeneratorTest {
+
+    @Test
+    public void testGeneration() {
+        int numberOfJugglers = 2;
+        int period = 7;
+        int minThrow = 2;
+        int maxThrow = 10;
+        int numberOfObjects = 6;
+        int numberOfSynchronousHands = 1;
+        FilterList filters = new FilterList();
+        filters.addDefaultFilters(numberOfJugglers, minThrow, numberOfSynchronousHands);
+        filters.add(new LocalInterfaceFilter(
+                new Siteswap("ppspsps"), PatternFilter.Type.INCLUDE, numberOfJugglers));
+        filters.add(new LocalPatternFilter(
+                new Siteswap("22"), PatternFilter.Type.EXCLUDE, numberOfJugglers));
+        filters.add(new LocalPatternFilter(
+                new Siteswap("44"), PatternFilter.Type.EXCLUDE, numberOfJugglers));
+
+        SiteswapGenerator gen = new SiteswapGenerator(period, maxThrow, minThrow, numberOfObjects, numberOfJugglers, filters);
+        gen.setSyncPattern(false);
+
+        SiteswapGenerator.Status status = gen.generateSiteswaps();
+        assertEquals(ALL_SITESWAPS_FOUND, status);
+        String expected = new String("[7567566, 7746675, 7746756, 7747746, 8456757, 8457567, 8457747, 8556756, 8557566, 8557746, 8557845, 8558556, 8627577, 8852757, 9245778, 9457467, 9458457, 9525678, 9527478, 9527892, 9529458, 9557466, 9557862, 9558456, 9558852, 9625677, 9627477, 9629457, 9645675, 9645774, 9685275, 9695274, 9724677, 9729627, 9744675, 9744774, 9749625, 9749724, 9784275, 9789225, 9794274, 9922497, 9924477, 9924972, 9929427, 9929922, 9952467, 9952962, a524579, a525578, a529529, a625577, a645575, a675275, a724577, a729527, a744575, a749525, a756275, a759245, a774275, a779225, a855275]");
+        assertEquals(expected, gen.getSiteswaps().toString());
+        return;
+    }
+
+    @Test
+    public void testParallelGeneration() {
+        int numberOfJugglers = 2;
+        int period = 6;
+        int minThrow = 2;
+        int maxThrow = 10;
+        int numberOfObjects = 6;
+        FilterList filters = new FilterList();
+        filters.addDefaultFilters(numberOfJugglers, minThrow, numberOfJugglers);
+
+        SiteswapGenerator serialGen = new SiteswapGenerator(period, maxThrow, minThrow, numberOfObjects, numberOfJugglers, filters);
+        serialGen.setSyncPattern(true);
+        SiteswapGenerator parallelGen = new SiteswapGenerator(period, maxThrow, minThrow, numberOfObjects, numberOfJugglers, filters);
+        parallelGen.setSyncPattern(true);
+        parallelGen.setParallelGeneration(true);
+
+        assertEquals(ALL_SITESWAPS_FOUND, serialGen.generateSiteswaps());
+        assertEquals(ALL_SITESWAPS_FOUND, parallelGen.generateSiteswaps());
+        assertEquals(serialGen.getSiteswaps().toString(), parallelGen.getSiteswaps().toString());
+
+        serialGen.setMaxResults(17);
+        parallelGen.setMaxResults(17);
+        assertEquals(MAX_RESULTS_REACHED, serialGen.generateSiteswaps());
+        assertEquals(MAX_RESULTS_REACHED, parallelGen.generateSiteswaps());
+        assertEquals(serialGen.getSiteswaps().toString(), parallelGen.getSiteswaps().toString());
+    }
+
+    @Test
+    public void testParallelGenerationWithLargeTasks() {
+        // some tasks find more siteswaps than they buffer, while they run ahead
+        SiteswapGenerator serialGen = new SiteswapGenerator(9, 8, 0, 4, 1, new FilterList());
+        SiteswapGenerator parallelGen = new SiteswapGenerator(9, 8, 0, 4, 1, new FilterList());
+        parallelGen.setParallelGeneration(true);
+        assertEquals(ALL_SITESWAPS_FOUND, serialGen.generateSiteswaps());
+
+        // the canceled tasks of the first generation must not affect the second one
+        final int[] count = new int[1];
+        assertEquals(CANCELLED, parallelGen.generateSiteswaps(new SiteswapSink() {
+            @Override
+            public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                return ++count[0] < 10;
+            }
+        }));
+        assertEquals(10, count[0]);
+        assertEquals(ALL_SITESWAPS_FOUND, parallelGen.generateSiteswaps());
+        assertEquals(serialGen.getSiteswaps().toString(), parallelGen.getSiteswaps().toString());
+    }
+
+    @Test
+    public void testSiteswapSink() {
+        SiteswapGenerator gen = new SiteswapGenerator(5, 10, 2, 6, 2);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+        String expected = gen.getSiteswaps().toString();
+
+        final LinkedList<String> results = new LinkedList<String>();
+        SiteswapGenerator.Status status = gen.generateSiteswaps(new SiteswapSink() {
+            @Override
+            public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                results.add(new Siteswap(siteswap).toString());
+                return true;
+            }
+        });
+        assertEquals(ALL_SITESWAPS_FOUND, status);
+        assertEquals(expected, results.toString());
+        assertEquals(results.size(), gen.getNumberOfGeneratedSiteswaps());
+        assertNull(gen.getSiteswaps());
+
+        results.clear();
+        status = gen.generateSiteswaps(new SiteswapSink() {
+            @Override
+            public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                results.add(new Siteswap(siteswap).toString());
+                return results.size() < 3;
+            }
+        });
+        assertEquals(CANCELLED, status);
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    public void testSiteswapIterator() {
+        SiteswapGenerator gen = new SiteswapGenerator(6, 10, 2, 6, 2);
+        gen.setSyncPattern(true);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+        LinkedList<Siteswap> expected = gen.getSiteswaps();
+
+        LinkedList<Siteswap> results = new LinkedList<Siteswap>();
+        SiteswapIterator iterator = gen.iterator();
+        while (iterator.hasNext())
+            results.add(iterator.next());
+        assertEquals(ALL_SITESWAPS_FOUND, iterator.getStatus());
+        assertEquals(expected.toString(), results.toString());
+
+        iterator = gen.iterator();
+        assertEquals(expected.getFirst(), iterator.next());
+        iterator.close();
+        assertFalse(iterator.hasNext());
+        assertEquals(CANCELLED, iterator.getStatus());
+    }
+
+    @Test
+    public void testBinaryFormat() throws IOException {
+        FilterList filters = new FilterList();
+        filters.addDefaultFilters(2, 2);
+        filters.add(new PatternFilter(new Siteswap("9?"), PatternFilter.Type.EXCLUDE));
+        SiteswapGenerator gen = new SiteswapGenerator(6, 10, 2, 6, 2, filters);
+        gen.setSyncPattern(true);
+        gen.setMaxResults(20);
+        gen.setTimeoutSeconds(5);
+        gen.setCompatibleSiteswap(new Siteswap("86277", 2));
+        gen.generateSiteswaps();
+
+        SiteswapGenerator copy = SiteswapGenerator.fromByteArray(gen.toByteArray());
+        assertEquals(gen.getPeriodLength(), copy.getPeriodLength());
+        assertEquals(gen.getMaxThrow(), copy.getMaxThrow());
+        assertEquals(gen.getMinThrow(), copy.getMinThrow());
+        assertEquals(gen.getNumberOfObjects(), copy.getNumberOfObjects());
+        assertEquals(gen.getNumberOfJugglers(), copy.getNumberOfJugglers());
+        assertEquals(gen.getNumberOfSynchronousHands(), copy.getNumberOfSynchronousHands());
+        assertEquals(gen.getMaxResults(), copy.getMaxResults());
+        assertEquals(gen.getTimeoutSeconds(), copy.getTimeoutSeconds());
+        assertEquals(gen.getFilterList(), copy.getFilterList());
+        assertEquals(gen.getCompatibleSiteswap(), copy.getCompatibleSiteswap());
+        assertEquals(gen.getSiteswaps(), copy.getSiteswaps());
+
+        copy.generateSiteswaps();
+        assertEquals(gen.getSiteswaps().toString(), copy.getSiteswaps().toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryFormatVersion() throws IOException {
+        byte[] bytes = new SiteswapGenerator(3, 5, 0, 3, 1).toByteArray();
+        bytes[3] = (byte) (SiteswapGenerator.BINARY_FORMAT_VERSION + 1);
+        SiteswapGenerator.fromByteArray(bytes);
+    }
+
+    private static void assertProgress(SiteswapGenerator gen) {
+        final ArrayList<SiteswapGenerator.Progress> reports = new ArrayList<SiteswapGenerator.Progress>();
+        final LinkedList<Siteswap> results = new LinkedList<Siteswap>();
+        gen.setProgressListener(new SiteswapGenerator.ProgressListener() {
+            @Override
+            public void onProgress(SiteswapGenerator.Progress progress) {
+                // all results reported so far must have been passed to the sink
+                assertEquals(progress.getNumberOfResults(), results.size());
+                reports.add(progress);
+            }
+        }, 0);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps(new SiteswapSink() {
+            @Override
+            public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                results.add(new Siteswap(siteswap));
+                return true;
+            }
+        }));
+        assertTrue(reports.size() > 1);
+        double fraction = 0;
+        for (SiteswapGenerator.Progress progress : reports) {
+            assertTrue(progress.getSearchedFraction() >= fraction);
+            fraction = progress.getSearchedFraction();
+        }
+        SiteswapGenerator.Progress last = reports.get(reports.size() - 1);
+        assertEquals(1.0, last.getSearchedFraction(), 0);
+        assertEquals(gen.getNumberOfGeneratedSiteswaps(), last.getNumberOfResults());
+        assertEquals(gen.getBacktrackingCount(), last.getBacktrackingCount());
+    }
+
+    @Test
+    public void testProgressListener() {
+        SiteswapGenerator gen = new SiteswapGenerator(7, 10, 0, 6, 2, new FilterList());
+        gen.setSyncPattern(true);
+        assertProgress(gen);
+        gen.setParallelGeneration(true);
+        assertProgress(gen);
+    }
+
+    private static SiteswapGenerator createResumeGenerator(boolean isSync, boolean isParallel) {
+        FilterList filters = new FilterList(2, isSync ? 2 : 1);
+        filters.add(new NumberFilter("2", NumberFilter.Type.SMALLER_EQUAL, 1, isSync ? 2 : 1));
+        SiteswapGenerator gen = new SiteswapGenerator(6, 10, 0, 6, 2, filters);
+        gen.setSyncPattern(isSync);
+        gen.setParallelGeneration(isParallel);
+        return gen;
+    }
+
+    @Test
+    public void testResumeAfterMaxResults() {
+        for (boolean isSync : new boolean[] {false, true}) {
+            for (boolean isParallel : new boolean[] {false, true}) {
+                SiteswapGenerator gen = createResumeGenerator(isSync, isParallel);
+                gen.generateSiteswaps();
+                assertNull(gen.getCursor());
+                LinkedList<Siteswap> expected = gen.getSiteswaps();
+
+                for (int maxResults : new int[] {1, 7, 100}) {
+                    gen.setMaxResults(maxResults);
+                    LinkedList<Siteswap> results = new LinkedList<Siteswap>();
+                    GenerationCursor cursor = null;
+                    SiteswapGenerator.Status status;
+                    do {
+                        status = gen.generateSiteswaps(new SiteswapListSink(results, gen.getNumberOfSynchronousHands()), cursor);
+                        cursor = gen.getCursor();
+                    } while (status == MAX_RESULTS_REACHED);
+                    assertEquals(ALL_SITESWAPS_FOUND, status);
+                    assertEquals(expected.toString(), results.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResumeAfterCancel() {
+        for (boolean isSync : new boolean[] {false, true}) {
+            for (boolean isParallel : new boolean[] {false, true}) {
+                final SiteswapGenerator gen = createResumeGenerator(isSync, isParallel);
+                gen.generateSiteswaps();
+                LinkedList<Siteswap> expected = gen.getSiteswaps();
+
+                // cancel after some results, so that the search is interrupted at a node
+                // and continue from there
+                final LinkedList<Siteswap> results = new LinkedList<Siteswap>();
+                GenerationCursor cursor = null;
+                SiteswapGenerator.Status status;
+                do {
+                    final int stop = results.size() + 5;
+                    status = gen.generateSiteswaps(new SiteswapListSink(results, gen.getNumberOfSynchronousHands()) {
+                        @Override
+                        public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                            super.accept(siteswap, synchronousStartPosition);
+                            if (results.size() == stop)
+                                gen.cancelGeneration();
+                            return true;
+                        }
+                    }, cursor);
+                    cursor = gen.getCursor();
+                } while (status == CANCELLED);
+                assertEquals(ALL_SITESWAPS_FOUND, status);
+                assertEquals(expected.toString(), results.toString());
+
+                // a refused siteswap is passed again after continuing
+                results.clear();
+                gen.generateSiteswaps(new SiteswapSink() {
+                    @Override
+                    public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                        return false;
+                    }
+                });
+                gen.generateSiteswaps(new SiteswapListSink(results, gen.getNumberOfSynchronousHands()), gen.getCursor());
+                assertEquals(expected.toString(), results.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testCursorBinaryFormat() throws IOException {
+        SiteswapGenerator gen = createResumeGenerator(true, false);
+        gen.setMaxResults(3);
+        gen.generateSiteswaps();
+        SiteswapGenerator copy = SiteswapGenerator.fromByteArray(gen.toByteArray());
+        assertEquals(gen.getCursor(), copy.getCursor());
+    }
+
+    private static class SiteswapListSink implements SiteswapSink {
+        private final LinkedList<Siteswap> mList;
+        private final int mNumberOfSynchronousHands;
+
+        SiteswapListSink(LinkedList<Siteswap> list, int numberOfSynchronousHands) {
+            mList = list;
+            mNumberOfSynchronousHands = numberOfSynchronousHands;
+        }
+
+        @Override
+        public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+            Siteswap result = new Siteswap(siteswap, 2);
+            result.setNumberOfSynchronousHands(mNumberOfSynchronousHands);
+            result.setSynchronousStartPosition(synchronousStartPosition);
+            mList.add(result);
+            return true;
+        }
+    }
+
+}
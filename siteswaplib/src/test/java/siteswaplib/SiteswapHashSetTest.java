@@ -0,0 +1,100 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SiteswapHashSetTest {
+
+    @Test
+    public void testRotations() {
+        SiteswapHashSet set = new SiteswapHashSet();
+        assertTrue(set.add(new Siteswap("86277")));
+        assertFalse(set.add(new Siteswap("77862")));
+        assertTrue(set.contains(new Siteswap("62778")));
+        assertFalse(set.contains(new Siteswap("86727")));
+        assertTrue(set.add(new Siteswap("86727")));
+        // too long to be packed
+        assertTrue(set.add(new Siteswap("7788289247772")));
+        assertFalse(set.add(new Siteswap("2477727788289")));
+        assertEquals(3, set.size());
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testSynchronousStartPosition() {
+        SiteswapHashSet set = new SiteswapHashSet();
+        assertTrue(set.add(new byte[]{8, 6, 4, 6}, 2, 0));
+        assertTrue(set.add(new byte[]{8, 6, 4, 6}, 2, 1));
+        // rotated by one position, which changes the synchronous start position
+        assertFalse(set.add(new byte[]{6, 4, 6, 8}, 2, 1));
+        // with an odd period both hands start the pattern after one period
+        assertTrue(set.add(new byte[]{8, 6, 4}, 2, 0));
+        assertFalse(set.add(new byte[]{8, 6, 4}, 2, 1));
+        // the throws repeat after two positions, but a shift by two positions keeps
+        // the hand of each throw, so both start positions are different
+        assertTrue(set.add(new byte[]{6, 4, 6, 4}, 2, 0));
+        assertFalse(set.add(new byte[]{6, 4, 6, 4}, 2, 0));
+        assertTrue(set.add(new byte[]{6, 4, 6, 4}, 2, 1));
+        assertTrue(set.add(new byte[]{5, 5, 5}, 2, 0));
+        assertFalse(set.add(new byte[]{5, 5, 5}, 2, 1));
+        assertTrue(set.add(new byte[]{5, 5, 5}, 1, 0));
+    }
+
+    @Test
+    public void testGeneratedSiteswaps() {
+        Random random = new Random(1);
+        for (int period = 1; period <= 12; period += 3) {
+            SiteswapGenerator generator = new SiteswapGenerator(period, 7, 0, 4, 1, new FilterList());
+            generator.generateSiteswaps();
+            SiteswapHashSet set = new SiteswapHashSet();
+            for (Siteswap siteswap : generator.getSiteswaps())
+                assertTrue(set.add(siteswap));
+            for (Siteswap siteswap : generator.getSiteswaps()) {
+                int hashCode = siteswap.rotationInvariantHashCode();
+                siteswap.rotateLeft(random.nextInt(period));
+                assertFalse(set.add(siteswap));
+                assertEquals(hashCode, siteswap.rotationInvariantHashCode());
+            }
+            assertEquals(generator.getSiteswaps().size(), set.size());
+        }
+    }
+
+    @Test
+    public void testGeneratedSynchronousSiteswaps() {
+        // with an odd period both synchronous start positions lead to the same patterns,
+        // which are passed only once by the generator
+        for (int period = 1; period <= 7; ++period) {
+            SiteswapGenerator generator = new SiteswapGenerator(period, 10, 0, 6, 2, new FilterList());
+            generator.setSyncPattern(true);
+            generator.generateSiteswaps();
+            assertFalse(generator.getSiteswaps().isEmpty());
+            SiteswapHashSet set = new SiteswapHashSet();
+            for (Siteswap siteswap : generator.getSiteswaps())
+                assertTrue(set.add(siteswap));
+        }
+    }
+}
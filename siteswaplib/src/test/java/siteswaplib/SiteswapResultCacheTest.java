@@ -0,0 +1,257 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static siteswaplib.SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+import static siteswaplib.SiteswapGenerator.Status.CANCELLED;
+import static siteswaplib.SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+import static siteswaplib.SiteswapGenerator.Status.MEMORY_FULL;
+
+public class SiteswapResultCacheTest {
+
+    private File mDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        mDirectory = File.createTempFile("cache", "");
+        mDirectory.delete();
+        mDirectory.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files)
+                file.delete();
+        }
+        mDirectory.delete();
+    }
+
+    private static SiteswapGenerator createGenerator(int maxResults) {
+        FilterList filters = new FilterList(2, 1);
+        SiteswapGenerator gen = new SiteswapGenerator(5, 10, 2, 7, 2, filters);
+        gen.setMaxResults(maxResults);
+        return gen;
+    }
+
+    private static class ListSink implements SiteswapSink {
+        final LinkedList<Siteswap> mList = new LinkedList<Siteswap>();
+
+        @Override
+        public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+            mList.add(new Siteswap(siteswap, 2));
+            return true;
+        }
+    }
+
+    private static class BoundedSink extends ListSink implements SiteswapSink.Bounded {
+        private final int mCapacity;
+
+        BoundedSink(int capacity) {
+            mCapacity = capacity;
+        }
+
+        @Override
+        public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+            return !isFull() && super.accept(siteswap, synchronousStartPosition);
+        }
+
+        @Override
+        public boolean isFull() {
+            return mList.size() >= mCapacity;
+        }
+    }
+
+    private static String expected(int maxResults) {
+        SiteswapGenerator gen = createGenerator(maxResults);
+        gen.generateSiteswaps();
+        return gen.getSiteswaps().toString();
+    }
+
+    @Test
+    public void testRepeatedGeneration() {
+        SiteswapResultCache cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        ListSink first = new ListSink();
+        assertEquals(ALL_SITESWAPS_FOUND, cache.generateSiteswaps(createGenerator(1000000), first));
+        assertEquals(expected(1000000), first.mList.toString());
+        assertEquals(1, cache.size());
+
+        // taken from the cache without running the generator, also by a new cache
+        cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        SiteswapGenerator gen = createGenerator(1000000);
+        ListSink second = new ListSink();
+        assertEquals(ALL_SITESWAPS_FOUND, cache.generateSiteswaps(gen, second));
+        assertEquals(0, gen.getBacktrackingCount());
+        assertEquals(first.mList.toString(), second.mList.toString());
+
+        ListSink limited = new ListSink();
+        assertEquals(MAX_RESULTS_REACHED, cache.generateSiteswaps(createGenerator(5), limited));
+        assertEquals(expected(5), limited.mList.toString());
+    }
+
+    @Test
+    public void testContinuedGeneration() {
+        SiteswapResultCache cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        ListSink first = new ListSink();
+        assertEquals(MAX_RESULTS_REACHED, cache.generateSiteswaps(createGenerator(10), first));
+        assertEquals(expected(10), first.mList.toString());
+
+        ListSink second = new ListSink();
+        assertEquals(MAX_RESULTS_REACHED, cache.generateSiteswaps(createGenerator(25), second));
+        assertEquals(expected(25), second.mList.toString());
+
+        ListSink third = new ListSink();
+        assertEquals(ALL_SITESWAPS_FOUND, cache.generateSiteswaps(createGenerator(1000000), third));
+        assertEquals(expected(1000000), third.mList.toString());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testRefusedSiteswap() {
+        SiteswapResultCache cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        final ListSink refusing = new ListSink() {
+            @Override
+            public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                return mList.size() < 7 && super.accept(siteswap, synchronousStartPosition);
+            }
+        };
+        assertEquals(CANCELLED, cache.generateSiteswaps(createGenerator(1000000), refusing));
+        ListSink all = new ListSink();
+        assertEquals(ALL_SITESWAPS_FOUND, cache.generateSiteswaps(createGenerator(1000000), all));
+        assertEquals(expected(1000000), all.mList.toString());
+    }
+
+    @Test
+    public void testFullSink() {
+        SiteswapResultCache cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        BoundedSink full = new BoundedSink(7);
+        assertEquals(MEMORY_FULL, cache.generateSiteswaps(createGenerator(1000000), full));
+        assertEquals(expected(7), full.mList.toString());
+
+        ListSink all = new ListSink();
+        assertEquals(ALL_SITESWAPS_FOUND, cache.generateSiteswaps(createGenerator(1000000), all));
+        assertEquals(expected(1000000), all.mList.toString());
+
+        // refused while the cached siteswaps are passed
+        full = new BoundedSink(7);
+        assertEquals(MEMORY_FULL, cache.generateSiteswaps(createGenerator(1000000), full));
+        assertEquals(expected(7), full.mList.toString());
+    }
+
+    @Test
+    public void testDamagedRecords() throws IOException {
+        SiteswapResultCache cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        SiteswapGenerator gen = new SiteswapGenerator(7, 9, 0, 5, 1, new FilterList(1, 1));
+        gen.generateSiteswaps();
+        String expected = gen.getSiteswaps().toString();
+        ListSink first = new ListSink();
+        assertEquals(ALL_SITESWAPS_FOUND, cache.generateSiteswaps(
+                new SiteswapGenerator(7, 9, 0, 5, 1, new FilterList(1, 1)), first));
+        final File entry = mDirectory.listFiles()[0];
+
+        // the entry is truncated, after the first records were read
+        ListSink second = new ListSink() {
+            @Override
+            public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                if (mList.isEmpty()) {
+                    try {
+                        RandomAccessFile file = new RandomAccessFile(entry, "rw");
+                        file.setLength(100);
+                        file.close();
+                    }
+                    catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                mList.add(new Siteswap(siteswap, 1));
+                return true;
+            }
+        };
+        gen = new SiteswapGenerator(7, 9, 0, 5, 1, new FilterList(1, 1));
+        assertEquals(ALL_SITESWAPS_FOUND, cache.generateSiteswaps(gen, second));
+        assertTrue(gen.getBacktrackingCount() > 0);
+        assertEquals(expected, second.mList.toString());
+        assertEquals(1, cache.size());
+        assertEquals(1, mDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testKey() {
+        SiteswapGenerator gen = createGenerator(10);
+        String key = SiteswapResultCache.getKey(gen);
+        assertEquals(key, SiteswapResultCache.getKey(createGenerator(1000)));
+        assertEquals(64 + 4, SiteswapResultCache.getFileName(key).length());
+        gen.getFilterList().add(new PatternFilter(new Siteswap("8p7", 2), PatternFilter.Type.EXCLUDE));
+        assertNotEquals(key, SiteswapResultCache.getKey(gen));
+        gen = createGenerator(10);
+        gen.setSyncPattern(true);
+        assertNotEquals(key, SiteswapResultCache.getKey(gen));
+        gen = createGenerator(10);
+        gen.setStateGraphGeneration(true);
+        assertNotEquals(key, SiteswapResultCache.getKey(gen));
+    }
+
+    @Test
+    public void testEviction() {
+        SiteswapResultCache cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        cache.generateSiteswaps(createGenerator(1000000), new ListSink());
+        long size = cache.getTotalBytes();
+        assertTrue(size > 0);
+
+        cache = new SiteswapResultCache(mDirectory, size + 100);
+        SiteswapGenerator other = new SiteswapGenerator(4, 10, 2, 7, 2, new FilterList(2, 1));
+        cache.generateSiteswaps(other, new ListSink());
+        assertEquals(1, cache.size());
+        assertEquals(1, mDirectory.listFiles().length);
+
+        // the first entry was evicted and is generated again
+        SiteswapGenerator gen = createGenerator(1000000);
+        cache.generateSiteswaps(gen, new ListSink());
+        assertTrue(gen.getBacktrackingCount() > 0);
+    }
+
+    @Test
+    public void testCorruptedEntry() throws IOException {
+        SiteswapResultCache cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        cache.generateSiteswaps(createGenerator(1000000), new ListSink());
+        File entry = mDirectory.listFiles()[0];
+        FileOutputStream out = new FileOutputStream(entry);
+        out.write(new byte[] {0, 0, 0, 1, 0});
+        out.close();
+
+        cache = new SiteswapResultCache(mDirectory, 1 << 20);
+        ListSink sink = new ListSink();
+        assertEquals(ALL_SITESWAPS_FOUND, cache.generateSiteswaps(createGenerator(1000000), sink));
+        assertEquals(expected(1000000), sink.mList.toString());
+    }
+}
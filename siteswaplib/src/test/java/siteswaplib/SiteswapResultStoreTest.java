@@ -0,0 +1,123 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static siteswaplib.SiteswapGenerator.Status.CANCELLED;
+import static siteswaplib.SiteswapGenerator.Status.MEMORY_FULL;
+
+public class SiteswapResultStoreTest {
+
+    private void assertGeneratedSiteswaps(SiteswapResultStore store) throws IOException {
+        SiteswapGenerator generator = new SiteswapGenerator(5, 10, 0, 6, 2, new FilterList(2, 2));
+        generator.setSyncPattern(true);
+        generator.generateSiteswaps();
+        LinkedList<Siteswap> expected = generator.getSiteswaps();
+
+        generator.generateSiteswaps(store);
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected, store);
+        for (int i = 0; i < store.size(); ++i) {
+            assertEquals(expected.get(i).getSynchronousStartPosition(),
+                    store.get(i).getSynchronousStartPosition());
+        }
+        store.close();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testDirectBuffers() throws IOException {
+        assertGeneratedSiteswaps(new SiteswapResultStore(5, 2, 2));
+    }
+
+    @Test
+    public void testMappedFile() throws IOException {
+        File directory = File.createTempFile("store", "");
+        directory.delete();
+        directory.mkdir();
+        assertGeneratedSiteswaps(new SiteswapResultStore(5, 2, 2, directory));
+        // the temporary file is deleted on close
+        assertEquals(0, directory.list().length);
+        directory.delete();
+    }
+
+    @Test
+    public void testSeveralChunks() throws IOException {
+        SiteswapResultStore store = new SiteswapResultStore(9, 1, 1);
+        byte[] siteswap = new byte[9];
+        int numberOfSiteswaps = 300000;
+        for (int i = 0; i < numberOfSiteswaps; ++i) {
+            for (int j = 0; j < siteswap.length; ++j)
+                siteswap[j] = (byte) ((i >> (2 * j)) & 3);
+            store.accept(siteswap, 0);
+        }
+        assertEquals(numberOfSiteswaps, store.size());
+        for (int i = 0; i < numberOfSiteswaps; i += 997) {
+            for (int j = 0; j < siteswap.length; ++j)
+                siteswap[j] = (byte) ((i >> (2 * j)) & 3);
+            assertArrayEquals(siteswap, store.get(i).toArray());
+        }
+        store.close();
+        assertFalse(store.iterator().hasNext());
+    }
+
+    @Test
+    public void testFullStore() throws IOException {
+        SiteswapResultStore store = new SiteswapResultStore(5, 2, 2) {
+            @Override
+            ByteBuffer allocateChunk(int chunkIndex) throws IOException {
+                throw new OutOfMemoryError("Direct buffer memory");
+            }
+        };
+        SiteswapGenerator generator = new SiteswapGenerator(5, 10, 0, 6, 2, new FilterList(2, 2));
+        generator.setSyncPattern(true);
+        assertEquals(MEMORY_FULL, generator.generateSiteswaps(store));
+        assertTrue(store.isFull());
+        assertEquals(0, store.size());
+
+        // the refused siteswap is passed again, when the generation is continued
+        SiteswapResultStore otherStore = new SiteswapResultStore(5, 2, 2);
+        generator.generateSiteswaps(otherStore, generator.getCursor());
+        generator.generateSiteswaps();
+        assertEquals(generator.getSiteswaps(), otherStore);
+        store.close();
+        otherStore.close();
+    }
+
+    @Test
+    public void testClosedStore() throws IOException {
+        SiteswapResultStore store = new SiteswapResultStore(5, 2, 2);
+        store.close();
+        assertFalse(store.accept(new byte[]{9, 7, 5, 8, 1}, 0));
+        assertEquals(0, store.size());
+        assertFalse(store.isFull());
+        SiteswapGenerator generator = new SiteswapGenerator(5, 10, 0, 6, 2, new FilterList(2, 2));
+        assertEquals(CANCELLED, generator.generateSiteswaps(store));
+    }
+}
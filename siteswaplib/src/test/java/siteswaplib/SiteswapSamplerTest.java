@@ -0,0 +1,136 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static siteswaplib.SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+import static siteswaplib.SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+
+public class SiteswapSamplerTest {
+
+    private static HashSet<String> enumerate(int period, int maxThrow, int minThrow, int numberOfObjects,
+                                             int numberOfJugglers, boolean isSync, FilterList filters) {
+        SiteswapGenerator gen = new SiteswapGenerator(period, maxThrow, minThrow,
+                numberOfObjects, numberOfJugglers, filters);
+        gen.setSyncPattern(isSync);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+        HashSet<String> siteswaps = new HashSet<String>();
+        for (Siteswap siteswap : gen.getSiteswaps())
+            siteswaps.add(siteswap.toParsableString());
+        return siteswaps;
+    }
+
+    @Test
+    public void testSamplesAreGenerated() {
+        for (boolean isSync : new boolean[] {false, true}) {
+            FilterList filters = new FilterList(2, isSync ? 2 : 1);
+            filters.removeZips(2, isSync ? 2 : 1);
+            HashSet<String> expected = enumerate(5, 8, 1, 5, 2, isSync, filters);
+            SiteswapSampler sampler = new SiteswapSampler(5, 8, 1, 5, 2, isSync ? 2 : 1,
+                    filters, new Random(1));
+            assertTrue(sampler.isSupported());
+            assertFalse(sampler.isEmpty());
+            HashSet<String> sampled = new HashSet<String>();
+            for (int i = 0; i < 20000; ++i) {
+                Siteswap siteswap = sampler.sample();
+                if (siteswap == null)
+                    continue;
+                assertTrue(siteswap.toString(), expected.contains(siteswap.toParsableString()));
+                sampled.add(siteswap.toParsableString());
+            }
+            assertEquals(expected, sampled);
+        }
+    }
+
+    @Test
+    public void testUniformDistribution() {
+        HashSet<String> expected = enumerate(4, 6, 0, 3, 1, false, new FilterList());
+        SiteswapSampler sampler = new SiteswapSampler(4, 6, 0, 3, 1, 1, new FilterList(), new Random(2));
+        HashMap<String, Integer> counts = new HashMap<String, Integer>();
+        int numberOfSamples = 0;
+        while (numberOfSamples < 100 * expected.size()) {
+            Siteswap siteswap = sampler.sample();
+            if (siteswap == null)
+                continue;
+            String str = siteswap.toParsableString();
+            Integer count = counts.get(str);
+            counts.put(str, count == null ? 1 : count + 1);
+            numberOfSamples++;
+        }
+        assertEquals(expected, counts.keySet());
+        // each siteswap is expected 100 times, the standard deviation is about 10
+        for (int count : counts.values())
+            assertTrue(String.valueOf(count), count > 50 && count < 150);
+    }
+
+    @Test
+    public void testSeed() {
+        SiteswapSampler first = new SiteswapSampler(7, 10, 0, 5, 2, 1, new FilterList(), new Random(42));
+        SiteswapSampler second = new SiteswapSampler(7, 10, 0, 5, 2, 1, new FilterList(), new Random(42));
+        for (int i = 0; i < 100; ++i) {
+            Siteswap siteswap = first.sample();
+            Siteswap other = second.sample();
+            if (siteswap == null)
+                assertNull(other);
+            else
+                assertEquals(siteswap.toParsableString(), other.toParsableString());
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        SiteswapSampler sampler = new SiteswapSampler(3, 4, 4, 3, 1, 1, new FilterList(), new Random());
+        assertTrue(sampler.isSupported());
+        assertTrue(sampler.isEmpty());
+        assertNull(sampler.sample());
+
+        SiteswapGenerator gen = new SiteswapGenerator(3, 4, 4, 3, 1, new FilterList());
+        gen.setRandomGeneration(true);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+        assertEquals(0, gen.getNumberOfGeneratedSiteswaps());
+    }
+
+    @Test
+    public void testRandomGeneration() {
+        FilterList filters = new FilterList(1, 1);
+        HashSet<String> expected = enumerate(5, 7, 0, 3, 1, false, filters);
+        String[] results = new String[2];
+        for (int run = 0; run < 2; ++run) {
+            SiteswapGenerator gen = new SiteswapGenerator(5, 7, 0, 3, 1, filters);
+            gen.setRandomGeneration(true);
+            gen.setRandomSeed(7);
+            gen.setMaxResults(50);
+            assertEquals(MAX_RESULTS_REACHED, gen.generateSiteswaps());
+            assertEquals(50, gen.getSiteswaps().size());
+            for (Siteswap siteswap : gen.getSiteswaps())
+                assertTrue(siteswap.toParsableString() + expected, expected.contains(siteswap.toParsableString()));
+            results[run] = gen.getSiteswaps().toString();
+        }
+        assertEquals(results[0], results[1]);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2017 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SiteswapSearchIndexTest {
+
+    private static int[] expectedMatches(List<Siteswap> siteswaps, String query, int fromIndex) {
+        String pattern = query.replaceAll("\\s", "").toLowerCase();
+        List<Integer> matches = new ArrayList<Integer>();
+        for (int i = fromIndex; i < siteswaps.size(); ++i) {
+            String text = siteswaps.get(i).toString().replaceAll("\\s", "").toLowerCase();
+            // The periodic repetition of the text contains all rotations
+            StringBuilder periodic = new StringBuilder(text);
+            while (periodic.length() < text.length() + pattern.length())
+                periodic.append(text);
+            if (periodic.toString().contains(pattern))
+                matches.add(i);
+        }
+        int[] result = new int[matches.size()];
+        for (int i = 0; i < result.length; ++i)
+            result[i] = matches.get(i);
+        return result;
+    }
+
+    @Test
+    public void testSearch() {
+        SiteswapGenerator generator = new SiteswapGenerator(5, 10, 0, 6, 2, new FilterList(2, 2));
+        generator.setSyncPattern(true);
+        generator.generateSiteswaps();
+        LinkedList<Siteswap> siteswaps = generator.getSiteswaps();
+        SiteswapResultStore store = new SiteswapResultStore(5, 2, 2);
+        generator.generateSiteswaps(store);
+
+        SiteswapSearchIndex index = new SiteswapSearchIndex(store);
+        assertEquals(siteswaps.size(), index.update());
+        assertEquals(0, index.update());
+        assertEquals(siteswaps.size(), index.size());
+
+        for (String query : new String[] {"", "a", "A", "4", "97", "a8", "4 a", "973",
+                "6a86", "3a9a6", "8a3a", "08a24a", "xyz", "ä", "4!", "3p", "A: 3p3",
+                "b:4P", "p3  B", "2p2p:"}) {
+            assertArrayEquals(expectedMatches(siteswaps, query, 0), index.search(query));
+            assertArrayEquals(expectedMatches(siteswaps, query, 7),
+                    index.search(query, 7, siteswaps.size()));
+        }
+    }
+
+    @Test
+    public void testRotation() {
+        List<Siteswap> siteswaps = new ArrayList<Siteswap>();
+        SiteswapSearchIndex index = new SiteswapSearchIndex(siteswaps);
+        siteswaps.add(new Siteswap("86277", 2));
+        siteswaps.add(new Siteswap("5", 1));
+        index.update();
+        assertArrayEquals(new int[] {0}, index.search("2778"));
+        assertArrayEquals(new int[] {0}, index.search("7786"));
+        assertArrayEquals(new int[] {0}, index.search("86277862"));
+        assertArrayEquals(new int[] {1}, index.search("55555"));
+        assertArrayEquals(new int[] {}, index.search("86278"));
+    }
+
+    @Test
+    public void testDisplayedString() {
+        SiteswapGenerator generator = new SiteswapGenerator(4, 10, 0, 6, 2, new FilterList(2, 2));
+        generator.setSyncPattern(true);
+        SiteswapResultStore store = new SiteswapResultStore(4, 2, 2);
+        generator.generateSiteswaps(store);
+        SiteswapSearchIndex index = new SiteswapSearchIndex(store);
+        index.update();
+        for (int i = 0; i < store.size(); i += 7) {
+            String text = store.get(i).toString();
+            assertTrue(text.contains("p"));
+            assertTrue(Arrays.binarySearch(index.search(text), i) >= 0);
+            assertTrue(Arrays.binarySearch(index.search(text.substring(0, text.indexOf("B:"))), i) >= 0);
+        }
+    }
+
+    @Test
+    public void testClose() {
+        List<Siteswap> siteswaps = new ArrayList<Siteswap>();
+        SiteswapSearchIndex index = new SiteswapSearchIndex(siteswaps);
+        siteswaps.add(new Siteswap("86277", 2));
+        index.update();
+        assertArrayEquals(new int[] {0}, index.search("8627"));
+        index.close();
+        siteswaps.clear();
+        assertArrayEquals(new int[] {}, index.search("8627"));
+        assertArrayEquals(new int[] {}, index.search(""));
+        assertEquals(0, index.update());
+    }
+
+    @Test
+    public void testUpdate() {
+        List<Siteswap> siteswaps = new ArrayList<Siteswap>();
+        SiteswapSearchIndex index = new SiteswapSearchIndex(siteswaps);
+        assertEquals(0, index.update());
+        siteswaps.add(new Siteswap("86277", 2));
+        siteswaps.add(new Siteswap("97531", 1));
+        assertEquals(2, index.update());
+        siteswaps.add(new Siteswap("77722", 2));
+        assertEquals(1, index.update());
+        assertEquals(3, index.size());
+        assertArrayEquals(new int[] {0, 2}, index.search("2"));
+        assertArrayEquals(new int[] {2}, index.search("2", 1, 3));
+        assertArrayEquals(new int[] {0}, index.search("2", 0, 2));
+        assertArrayEquals(new int[] {0, 2}, index.search("277"));
+        assertArrayEquals(new int[] {2}, index.search("2277"));
+    }
+
+}
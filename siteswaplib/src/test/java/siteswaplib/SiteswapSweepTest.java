@@ -0,0 +1,111 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static siteswaplib.SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+import static siteswaplib.SiteswapGenerator.Status.CANCELLED;
+import static siteswaplib.SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+
+public class SiteswapSweepTest {
+
+    private static FilterList createFilters(int numberOfJugglers, int numberOfSynchronousHands,
+                                            int minThrow, boolean isWithoutZips) {
+        FilterList filters = new FilterList();
+        filters.addDefaultFilters(numberOfJugglers, minThrow, numberOfSynchronousHands);
+        if (isWithoutZips)
+            filters.removeZips(numberOfJugglers, numberOfSynchronousHands);
+        return filters;
+    }
+
+    private static void testSweep(int period, int objects, int jugglers, boolean isSync) {
+        int hands = isSync ? jugglers : 1;
+        SiteswapSweep sweep = new SiteswapSweep(period, objects, jugglers, hands);
+        List<SiteswapGenerator> expected = new ArrayList<SiteswapGenerator>();
+        for (int minThrow = 0; minThrow <= 2; ++minThrow) {
+            for (int maxThrow = 8; maxThrow <= 10; ++maxThrow) {
+                for (boolean isWithoutZips : new boolean[] {false, true}) {
+                    sweep.addBucket(minThrow, maxThrow, createFilters(jugglers, hands, minThrow, isWithoutZips));
+                    SiteswapGenerator gen = new SiteswapGenerator(period, maxThrow, minThrow, objects,
+                            jugglers, createFilters(jugglers, hands, minThrow, isWithoutZips));
+                    gen.setSyncPattern(isSync);
+                    assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+                    expected.add(gen);
+                }
+            }
+        }
+        assertEquals(ALL_SITESWAPS_FOUND, sweep.generateSiteswaps());
+        for (int i = 0; i < expected.size(); ++i) {
+            SiteswapSweep.Bucket bucket = sweep.getBuckets().get(i);
+            assertEquals(ALL_SITESWAPS_FOUND, bucket.getStatus());
+            assertEquals(expected.get(i).getSiteswaps().toString(), bucket.getSiteswaps().toString());
+            assertEquals(expected.get(i).getNumberOfGeneratedSiteswaps(), bucket.getNumberOfGeneratedSiteswaps());
+        }
+    }
+
+    @Test
+    public void testAsynchronousSweep() {
+        testSweep(4, 6, 2, false);
+        testSweep(5, 5, 1, false);
+        testSweep(1, 5, 2, false);
+    }
+
+    @Test
+    public void testSynchronousSweep() {
+        testSweep(3, 6, 2, true);
+    }
+
+    @Test
+    public void testMaxResults() {
+        SiteswapSweep sweep = new SiteswapSweep(5, 3, 1, 1);
+        SiteswapSweep.Bucket first = sweep.addBucket(0, 5, new FilterList());
+        SiteswapSweep.Bucket second = sweep.addBucket(0, 7, new FilterList());
+        first.setMaxResults(3);
+        second.setMaxResults(10);
+        assertEquals(MAX_RESULTS_REACHED, sweep.generateSiteswaps());
+        assertEquals(MAX_RESULTS_REACHED, first.getStatus());
+        assertEquals(3, first.getSiteswaps().size());
+        assertEquals(10, second.getSiteswaps().size());
+    }
+
+    @Test
+    public void testSink() {
+        SiteswapSweep sweep = new SiteswapSweep(4, 3, 1, 1);
+        final List<String> results = new ArrayList<String>();
+        SiteswapSweep.Bucket cancelled = sweep.addBucket(0, 7, new FilterList(), new SiteswapSink() {
+            @Override
+            public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                results.add(new Siteswap(siteswap).toString());
+                return results.size() < 2;
+            }
+        });
+        SiteswapSweep.Bucket other = sweep.addBucket(0, 6, new FilterList());
+        assertEquals(ALL_SITESWAPS_FOUND, sweep.generateSiteswaps());
+        assertEquals(CANCELLED, cancelled.getStatus());
+        assertNull(cancelled.getSiteswaps());
+        assertEquals(2, results.size());
+        assertEquals(ALL_SITESWAPS_FOUND, other.getStatus());
+    }
+}
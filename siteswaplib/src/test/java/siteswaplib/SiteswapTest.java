@@ -0,0 +1,191 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class SiteswapTest {
+
+    @Test
+    public void testCreateSynchronousFromString() {
+        String expected = new String("6p");
+        NumberFilter filter = new NumberFilter(expected, NumberFilter.Type.EQUAL, 1, 2);
+    }
+
+    @Test
+    public void testParseString() {
+        String siteswap_str_1 = "v1.0.0/86277.2.1.0";
+        String siteswap_str_1_substring = "86277.2.1.0";
+        Siteswap siteswap_1 = new Siteswap(siteswap_str_1);
+        assertEquals("86277", siteswap_1.toAsyncString());
+        assertEquals(2, siteswap_1.getNumberOfJugglers());
+        assertEquals(1, siteswap_1.getNumberOfSynchronousHands());
+        assertEquals(0, siteswap_1.getSynchronousStartPosition());
+        assertEquals(siteswap_str_1_substring, siteswap_1.toParsableString());
+
+        String siteswap_str_2 = "c9ec99bc39ac99a.3.3.1";
+        Siteswap siteswap_2 = new Siteswap(siteswap_str_2);
+        assertEquals("c9ec99bc39ac99a", siteswap_2.toAsyncString());
+        assertEquals(3, siteswap_2.getNumberOfJugglers());
+        assertEquals(3, siteswap_2.getNumberOfSynchronousHands());
+        assertEquals(1, siteswap_2.getSynchronousStartPosition());
+        assertEquals(siteswap_str_2, siteswap_2.toParsableString());
+
+        String siteswap_str_3 = "86277.2.1";
+        Siteswap siteswap_3 = new Siteswap(siteswap_str_3);
+        assertEquals("86277", siteswap_3.toAsyncString());
+        assertEquals(2, siteswap_3.getNumberOfJugglers());
+        assertEquals(1, siteswap_3.getNumberOfSynchronousHands());
+        assertEquals(0, siteswap_3.getSynchronousStartPosition());
+        assertEquals(siteswap_str_1_substring, siteswap_3.toParsableString());
+
+        String siteswap_str_4 = "86277.2";
+        Siteswap siteswap_4 = new Siteswap(siteswap_str_4);
+        assertEquals("86277", siteswap_4.toAsyncString());
+        assertEquals(2, siteswap_4.getNumberOfJugglers());
+        assertEquals(1, siteswap_4.getNumberOfSynchronousHands());
+        assertEquals(0, siteswap_4.getSynchronousStartPosition());
+        assertEquals(siteswap_str_1_substring, siteswap_4.toParsableString());
+
+        String siteswap_str_5 = "86277";
+        Siteswap siteswap_5 = new Siteswap(siteswap_str_5);
+        assertEquals("86277", siteswap_5.toAsyncString());
+        assertEquals(2, siteswap_5.getNumberOfJugglers());
+        assertEquals(1, siteswap_5.getNumberOfSynchronousHands());
+        assertEquals(0, siteswap_5.getSynchronousStartPosition());
+        assertEquals(siteswap_str_1_substring, siteswap_5.toParsableString());
+
+    }
+
+    @Test
+    public void testMergeSyncSiteswapsFailOnInvalidSiteswap() {
+        Siteswap s1 = new Siteswap("86277");
+        Siteswap s2 = new Siteswap("6787a");
+        Siteswap merged = Siteswap.mergeCompatible(s1, s2);
+        assertEquals(merged, null);
+    }
+
+    @Test
+    public void testMergeSyncSiteswapsFailOnIncompatibility() {
+        Siteswap s1 = new Siteswap("86277");
+        Siteswap s2 = new Siteswap("86727");
+        Siteswap merged = Siteswap.mergeCompatible(s1, s2);
+        assertEquals(merged, null);
+    }
+
+    private Siteswap maxRotation(Siteswap siteswap) {
+        Siteswap max = new Siteswap(siteswap);
+        Siteswap rotated = new Siteswap(siteswap);
+        for (int i = 0; i < siteswap.period_length(); ++i) {
+            rotated.rotateLeft(1);
+            if (rotated.compareTo(max) > 0)
+                max = new Siteswap(rotated);
+        }
+        return max;
+    }
+
+    @Test
+    public void testMakeUniqueRepresentation() {
+        Random random = new Random(1);
+        for (int n = 0; n < 2000; ++n) {
+            byte[] data = new byte[1 + random.nextInt(12)];
+            for (int i = 0; i < data.length; ++i)
+                data[i] = (byte) random.nextInt(3);
+            Siteswap siteswap = new Siteswap(data);
+            siteswap.rotateLeft(random.nextInt(data.length));
+            Siteswap expected = maxRotation(siteswap);
+            siteswap.make_unique_representation();
+            assertArrayEquals(expected.toArray(), siteswap.toArray());
+        }
+        Siteswap siteswap = new Siteswap("86277");
+        siteswap.make_unique_representation();
+        assertEquals(new Siteswap("86277"), siteswap);
+        siteswap = new Siteswap("27786");
+        siteswap.make_unique_representation();
+        assertEquals(new Siteswap("86277"), siteswap);
+    }
+
+    @Test
+    public void testCanonicalKey() {
+        assertEquals(new Siteswap("86277").canonicalKey(), new Siteswap("77862").canonicalKey());
+        assertEquals(new Siteswap("5151").canonicalKey(), new Siteswap("1515").canonicalKey());
+        assertNotEquals(new Siteswap("86277").canonicalKey(), new Siteswap("86727").canonicalKey());
+        assertNotEquals(new Siteswap("51").canonicalKey(), new Siteswap("5151").canonicalKey());
+    }
+
+    @Test
+    public void testHashCode() {
+        Siteswap siteswap1 = new Siteswap("86277");
+        Siteswap siteswap2 = new Siteswap("77862");
+        siteswap2.rotateLeft(2);
+        assertEquals(siteswap1, siteswap2);
+        assertEquals(siteswap1.hashCode(), siteswap2.hashCode());
+        assertEquals(siteswap1.rotationInvariantHashCode(),
+                new Siteswap("77862").rotationInvariantHashCode());
+    }
+
+    @Test
+    public void testFindNamedSiteswap() {
+        assertEquals("why not", NamedSiteswaps.findNamedSiteswap(new Siteswap("77862", 2)).getSiteswapName());
+        assertEquals(null, NamedSiteswaps.findNamedSiteswap(new Siteswap("6662", 2)));
+        Siteswap synchronousSiteswap = new Siteswap("77862", 2);
+        synchronousSiteswap.setNumberOfSynchronousHands(2);
+        assertEquals(null, NamedSiteswaps.findNamedSiteswap(synchronousSiteswap));
+    }
+
+    @Test
+    public void testStringRepresentation() {
+        Siteswap siteswap = new Siteswap("86277", 2);
+        assertEquals("86277", siteswap.toString());
+        assertEquals("86277.2.1.0", siteswap.toParsableString());
+        siteswap.setNumberOfSynchronousHands(2);
+        assertEquals("A: 413p33p  B: 34p414p  ", siteswap.toString());
+        assertEquals("(86)(28p)(6p8)(62)(6p8p)", siteswap.toGlobalString());
+        assertEquals(siteswap.toString(), siteswap.appendTo(new StringBuilder()).toString());
+
+        Siteswap synchronous = new Siteswap("8859a57889a059a49a5919a3783", 3);
+        synchronous.setNumberOfSynchronousHands(3);
+        synchronous.setSynchronousStartPosition(2);
+        assertEquals("A: 3p33p32p2p2p33p  B: 2p3p2p3p3333p2p  C: 2p2p3p03p3p0p11  ",
+                synchronous.toString());
+    }
+
+    @Test
+    public void testStringUpdatedOnChange() {
+        Siteswap siteswap = new Siteswap("86277", 2);
+        assertEquals("86277", siteswap.toString());
+        siteswap.rotateLeft(1);
+        assertEquals("62778", siteswap.toString());
+        siteswap.make_unique_representation();
+        assertEquals("86277", siteswap.toString());
+        siteswap.swap(0);
+        assertEquals("77277", siteswap.toString());
+        siteswap.set(0, 10);
+        assertEquals("a7277", siteswap.toString());
+        siteswap.fromParsableString("97531");
+        assertEquals("97531", siteswap.toString());
+    }
+
+}
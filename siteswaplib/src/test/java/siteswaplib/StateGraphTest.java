@@ -0,0 +1,133 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static siteswaplib.SiteswapGenerator.Status.ALL_SITESWAPS_FOUND;
+import static siteswaplib.SiteswapGenerator.Status.MAX_RESULTS_REACHED;
+
+public class StateGraphTest {
+
+    private static List<String> generate(int period, int maxThrow, int minThrow, int numberOfObjects,
+                                         int numberOfJugglers, FilterList filters,
+                                         boolean isStateGraphGeneration) {
+        SiteswapGenerator gen = new SiteswapGenerator(period, maxThrow, minThrow,
+                numberOfObjects, numberOfJugglers, filters);
+        gen.setStateGraphGeneration(isStateGraphGeneration);
+        assertEquals(ALL_SITESWAPS_FOUND, gen.generateSiteswaps());
+        List<String> siteswaps = new ArrayList<String>();
+        for (Siteswap siteswap : gen.getSiteswaps())
+            siteswaps.add(siteswap.toParsableString());
+        Collections.sort(siteswaps);
+        return siteswaps;
+    }
+
+    @Test
+    public void testStates() {
+        StateGraph graph = StateGraph.getInstance(3, 5);
+        assertEquals(10, graph.getNumberOfStates());
+        assertEquals(10, StateGraph.getNumberOfStates(3, 5));
+        assertEquals(0, graph.getIndex(graph.getGroundState()));
+        assertEquals(-1, graph.getIndex(0x3f));
+        for (int index = 0; index < graph.getNumberOfStates(); ++index) {
+            assertEquals(3, Long.bitCount(graph.getState(index)));
+            assertEquals(index, graph.getIndex(graph.getState(index)));
+        }
+        // from the ground state 111 the throws 3, 4 and 5 are possible
+        assertEquals(3, graph.getSuccessors(0).length);
+        assertSame(graph, StateGraph.getInstance(3, 5));
+        assertNull(StateGraph.getInstance(5, 4));
+        assertNull(StateGraph.getInstance(20, 40));
+    }
+
+    @Test
+    public void testGroundState() {
+        assertTrue(StateGraph.isGroundState(new Siteswap("531")));
+        assertTrue(StateGraph.isGroundState(new Siteswap("441")));
+        assertFalse(StateGraph.isGroundState(new Siteswap("51")));
+        assertFalse(StateGraph.isGroundState(new Siteswap("414")));
+        assertEquals(0xb, StateGraph.getState(new Siteswap("51").getData()));
+        for (String str : new String[] {"531", "51", "441", "414", "97531", "db97531", "6451"}) {
+            Siteswap siteswap = new Siteswap(str);
+            assertEquals(str, siteswap.isGetinFree(), StateGraph.isGroundState(siteswap));
+        }
+    }
+
+    @Test
+    public void testEnumerationWithoutFilters() {
+        for (int period = 1; period <= 6; ++period) {
+            for (int maxThrow = 3; maxThrow <= 8; ++maxThrow) {
+                assertEquals(generate(period, maxThrow, 0, 3, 1, new FilterList(), false),
+                        generate(period, maxThrow, 0, 3, 1, new FilterList(), true));
+            }
+        }
+    }
+
+    @Test
+    public void testEnumerationWithDefaultFilters() {
+        for (int period = 1; period <= 5; ++period) {
+            for (int minThrow = 0; minThrow <= 2; ++minThrow) {
+                FilterList filters = new FilterList(2, 1);
+                filters.add(new PatternFilter(new Siteswap("4p"), PatternFilter.Type.EXCLUDE));
+                assertEquals(generate(period, 10, minThrow, 6, 2, filters, false),
+                        generate(period, 10, minThrow, 6, 2, filters, true));
+            }
+        }
+    }
+
+    @Test
+    public void testMaxResults() {
+        SiteswapGenerator gen = new SiteswapGenerator(5, 7, 0, 3, 1, new FilterList());
+        gen.setStateGraphGeneration(true);
+        gen.setMaxResults(10);
+        assertEquals(MAX_RESULTS_REACHED, gen.generateSiteswaps());
+        assertEquals(10, gen.getSiteswaps().size());
+    }
+
+    @Test
+    public void testCanceledEnumeration() {
+        final int[] counts = new int[2];
+        SiteswapSink.Cancelable sink = new SiteswapSink.Cancelable() {
+            @Override
+            public boolean isCanceled() {
+                // canceled before the third start state
+                return ++counts[0] > 2;
+            }
+
+            @Override
+            public boolean accept(byte[] siteswap, int synchronousStartPosition) {
+                counts[1]++;
+                return true;
+            }
+        };
+        assertFalse(StateGraph.getInstance(3, 7).enumerateCycles(5, null, sink));
+        assertEquals(3, counts[0]);
+        assertTrue(counts[1] > 0);
+    }
+}
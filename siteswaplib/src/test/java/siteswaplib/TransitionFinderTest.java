@@ -0,0 +1,131 @@
+/*
+* Siteswap Generator: Android App for generating juggling siteswaps
+* Copyright (C) 2018 Tilman Sinning
+*
+* This program is free software: you can redistribute it and/or modify
+* it under the terms of the GNU General Public License as published by
+* the Free Software Foundation, either version 3 of the License, or
+* (at your option) any later version.
+*
+* This program is distributed in the hope that it will be useful,
+* but WITHOUT ANY WARRANTY; without even the implied warranty of
+* MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+* GNU General Public License for more details.
+*
+* You should have received a copy of the GNU General Public License
+* along with this program. If not, see <http://www.gnu.org/licenses/>.
+*/
+
+package siteswaplib;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransitionFinderTest {
+
+    private static String[] PATTERNS = {"3", "51", "441", "531", "423", "5241", "450", "4440", "55500"};
+
+    /**
+     * Returns all throw sequences of the given length, that lead from one state to
+     * the other, by trying all throws.
+     */
+    private static void bruteForce(long state, long target, byte[] transition, int index,
+                                   int maxThrow, int excludedThrow, List<String> results) {
+        if (index == transition.length) {
+            if (state == target)
+                results.add(new Siteswap(transition.clone()).toString());
+            return;
+        }
+        for (int value = 0; value <= maxThrow; ++value) {
+            if (value == excludedThrow || ((state & 1) == 0) != (value == 0) ||
+                    (value != 0 && (state & (1L << value)) != 0))
+                continue;
+            transition[index] = (byte) value;
+            bruteForce((state | (value == 0 ? 0 : 1L << value)) >> 1, target, transition,
+                    index + 1, maxThrow, excludedThrow, results);
+        }
+    }
+
+    private static List<String> toStrings(List<Siteswap> siteswaps) {
+        List<String> strings = new ArrayList<String>();
+        for (Siteswap siteswap : siteswaps)
+            strings.add(siteswap.toString());
+        Collections.sort(strings);
+        return strings;
+    }
+
+    @Test
+    public void testSimpleTransitions() {
+        TransitionFinder finder = new TransitionFinder(3, 5);
+        assertEquals(1, finder.getDistance(new Siteswap("3"), new Siteswap("51")));
+        assertEquals("[4]", finder.findTransitions(new Siteswap("3"), new Siteswap("51")).toString());
+        assertEquals("[2]", finder.findTransitions(new Siteswap("51"), new Siteswap("3")).toString());
+        assertEquals("[]", finder.findTransitions(new Siteswap("3"), new Siteswap("441")).toString());
+        assertEquals(1, finder.findTransitions(new Siteswap("3"), new Siteswap("441")).size());
+        assertEquals(0, finder.getDistance(new Siteswap("3"), new Siteswap("531")));
+
+        // without 4 the transition is longer
+        TransitionFinder finderWithout4 = new TransitionFinder(3, 5, 4);
+        assertEquals("[52]", finderWithout4.findTransitions(new Siteswap("3"), new Siteswap("51")).toString());
+    }
+
+    @Test
+    public void testNoTransition() {
+        TransitionFinder finder = new TransitionFinder(3, 5);
+        assertEquals(-1, finder.getDistance(new Siteswap("3"), new Siteswap("4")));
+        assertTrue(finder.findTransitions(new Siteswap("3"), new Siteswap("4")).isEmpty());
+        assertTrue(finder.findTransitions(new Siteswap("3"), new Siteswap("7")).isEmpty());
+        // the ground state can only be reached by 0, 1 or 2
+        assertEquals(-1, new TransitionFinder(3, 5, 0, 1, 2).getDistance(new Siteswap("51"), new Siteswap("3")));
+    }
+
+    @Test
+    public void testAllShortestTransitions() {
+        for (int excludedThrow : new int[] {-1, 0, 4}) {
+            TransitionFinder finder = new TransitionFinder(3, 6, excludedThrow);
+            for (String fromString : PATTERNS) {
+                for (String toString : PATTERNS) {
+                    Siteswap from = new Siteswap(fromString);
+                    Siteswap to = new Siteswap(toString);
+                    if (from.getNumberOfObjects() != 3 || to.getNumberOfObjects() != 3)
+                        continue;
+                    long fromState = StateGraph.getState(from.toArray());
+                    long toState = StateGraph.getState(to.toArray());
+                    List<String> expected = new ArrayList<String>();
+                    int length = 0;
+                    for (; length <= 6 && expected.isEmpty(); ++length)
+                        bruteForce(fromState, toState, new byte[length], 0, 6, excludedThrow, expected);
+                    Collections.sort(expected);
+                    String message = fromString + " -> " + toString;
+                    assertEquals(message, expected, toStrings(finder.findTransitions(from, to)));
+                    assertEquals(message, expected.isEmpty() ? -1 : length - 1, finder.getDistance(from, to));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGetin() {
+        TransitionFinder finder = new TransitionFinder(5, 10);
+        Siteswap ground = new Siteswap("5");
+        for (String str : new String[] {"744", "73", "771", "8444", "97531", "645"}) {
+            Siteswap siteswap = new Siteswap(str);
+            assertEquals(str, siteswap.calculateGetin().period_length(), finder.getDistance(ground, siteswap));
+        }
+    }
+
+    @Test
+    public void testMaxNumberOfTransitions() {
+        TransitionFinder finder = new TransitionFinder(3, 9);
+        Siteswap from = new Siteswap("9111");
+        Siteswap to = new Siteswap("3");
+        assertEquals("[222, 231, 312, 330, 411, 420]", toStrings(finder.findTransitions(from, to)).toString());
+        assertEquals(2, finder.findTransitions(from, to, 2).size());
+    }
+}